@@ -4,6 +4,7 @@ import edu.asu.commons.foraging.conf.RoundConfiguration;
 import edu.asu.commons.foraging.model.Actor;
 import edu.asu.commons.foraging.model.Direction;
 import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.RandomStreams;
 import edu.asu.commons.net.Identifier;
 
 import java.awt.Point;
@@ -11,8 +12,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.logging.Logger;
 
 public interface Bot extends Actor {
@@ -34,6 +34,8 @@ public interface Bot extends Actor {
 
     void addToken(Point location);
 
+    void setCurrentTokens(int currentTokens);
+
     void setCurrentPosition(Point location);
 
     int getActionsPerSecond();
@@ -91,6 +93,10 @@ public interface Bot extends Actor {
         public void addToken(Point location) {
         }
 
+        @Override
+        public void setCurrentTokens(int currentTokens) {
+        }
+
         @Override
         public void setCurrentPosition(Point location) {
         }
@@ -179,7 +185,7 @@ public interface Bot extends Actor {
         private GroupDataModel model;
         private int ticksToWait;
 
-        private transient Random random = new Random();
+        private transient SplittableRandom random = new SplittableRandom();
 
         protected transient Logger logger = Logger.getLogger(getClass().getName());
 
@@ -217,7 +223,8 @@ public interface Bot extends Actor {
                 return;
             }
             // if neither, check if we are sitting on top of a token
-            if (model.isResourceAt(getPosition())) {
+            Point position = getPosition();
+            if (model.isResourceAt(position.x, position.y)) {
                 if (random.nextDouble() <= getHarvestProbability()) {
                     model.collectToken(this);
                 }
@@ -290,10 +297,10 @@ public interface Bot extends Actor {
         }
 
         protected Point getRandomTokenLocation() {
-            Set<Point> resourcePositions = model.getResourcePositions();
-            int randomIndex = random.nextInt(resourcePositions.size());
-            for (Point point: resourcePositions) {
-                if (randomIndex-- == 0) {
+            int numberOfResources = model.getResourceDistributionSize();
+            if (numberOfResources > 0) {
+                Point point = model.getResourcePosition(random.nextInt(numberOfResources));
+                if (point != null) {
                     return point;
                 }
             }
@@ -301,18 +308,8 @@ public interface Bot extends Actor {
         }
 
         protected Point getNearestToken() {
-            Point currentLocation = getPosition();
-            Point nearestToken = null;
-            double nearestTokenDistance = Double.MAX_VALUE;
-            // naive implementation, scans all positions
-            for (Point resourcePosition : model.getResourcePositions()) {
-                double distance = currentLocation.distanceSq(resourcePosition);
-                if (distance < nearestTokenDistance) {
-                    nearestTokenDistance = distance;
-                    nearestToken = resourcePosition;
-                }
-            }
-            return nearestToken;
+            // naive implementation, scans all occupied cells in the group's resource grid
+            return model.getNearestResourcePosition(getPosition());
         }
 
         public void setHarvestProbability(double harvestProbability) {
@@ -342,6 +339,8 @@ public interface Bot extends Actor {
         public void initialize(RoundConfiguration roundConfiguration) {
             int actionsPerSecond = roundConfiguration.getRobotMovesPerSecond();
             setCurrentPosition(model.getInitialPosition(getBotNumber()));
+            // reseed from the group's streams every round so bot behavior is reproducible for a given random-seed
+            random = model.createRandom(RandomStreams.BOT, getBotNumber());
             logger.info("setting current bot position to " + getPosition());
             currentTokens = 0;
         }
@@ -349,7 +348,7 @@ public interface Bot extends Actor {
         private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
             ois.defaultReadObject();
             logger = Logger.getLogger(getClass().getName());
-            random = new Random();
+            random = new SplittableRandom();
         }
 
         public int getBotNumber() {
@@ -369,6 +368,10 @@ public interface Bot extends Actor {
         }
         public GroupDataModel getGroupDataModel() { return model; }
 
+        protected SplittableRandom getRandom() {
+            return random;
+        }
+
         public Point getTargetLocation() {
             return targetLocation;
         }
@@ -397,5 +400,9 @@ public interface Bot extends Actor {
             this.currentTokens++;
         }
 
+        public void setCurrentTokens(int currentTokens) {
+            this.currentTokens = currentTokens;
+        }
+
     }
 }
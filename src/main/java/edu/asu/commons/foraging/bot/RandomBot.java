@@ -20,7 +20,7 @@ public class RandomBot extends Bot.SimpleBot {
 
     @Override
     public Direction getNextMove() {
-        return Direction.random();
+        return Direction.random(getRandom());
     }
 
 }
@@ -1,6 +1,7 @@
 package edu.asu.commons.foraging.client;
 
 import java.awt.Point;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -11,10 +12,14 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
+import edu.asu.commons.event.EventChannel;
 import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
 import edu.asu.commons.foraging.event.ExplicitCollectionModeRequest;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
 import edu.asu.commons.foraging.event.RealTimeSanctionRequest;
+import edu.asu.commons.foraging.event.ResourceDiff;
 import edu.asu.commons.foraging.event.SinglePlayerClientUpdateEvent;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
 import edu.asu.commons.foraging.graphics.Point3D;
 import edu.asu.commons.foraging.model.ClientData;
 import edu.asu.commons.foraging.model.Direction;
@@ -63,6 +68,15 @@ public class ClientDataModel extends ForagingDataModel {
 
     private Map<Point, Resource> resourceDistribution = new HashMap<>();
 
+    // latest version of the group state applied to this model, 0 if unknown
+    private volatile long stateVersion;
+
+    // moves applied locally that the server hasn't acknowledged yet, oldest first. Also guards the prediction state.
+    private final ArrayDeque<Direction> predictedMoves = new ArrayDeque<>();
+    private long acknowledgedMoveSequence;
+    // tokens picked up by predicted moves, put back before every authoritative update
+    private final Map<Point, Resource> provisionalPickups = new HashMap<>();
+
     private Logger logger = Logger.getLogger(getClass().getName());
 
     private boolean singlePlayer = false;
@@ -76,6 +90,13 @@ public class ClientDataModel extends ForagingDataModel {
         this.client = client;
     }
 
+    /**
+     * Creates a model that isn't attached to a client, subclasses must override getId().
+     */
+    ClientDataModel(EventChannel channel) {
+        super(channel);
+    }
+
     public void toggleExplicitCollectionMode() {
         explicitCollectionMode = !explicitCollectionMode;
         client.transmit(new ExplicitCollectionModeRequest(client.getId(), explicitCollectionMode));
@@ -208,12 +229,169 @@ public class ClientDataModel extends ForagingDataModel {
      * Updates client positions, current tokens, etc.
      */
     public void update(ClientPositionUpdateEvent event) {
-        update(event.getClientTokens(), event.getClientPositions(), event.getLatestSanctions(), event.getAddedTokens(), event.getRemovedTokens());
+        GroupUpdateFrame frame = event.getFrame();
+        if (frame.isCoveredBy(stateVersion)) {
+            // already covered by a more recent synchronization, only apply this client's own updates
+            handleRealTimeSanctions(event.getLatestSanctions());
+            synchronized (predictedMoves) {
+                acknowledgeMoves(event.getLastInputSequence());
+            }
+            return;
+        }
+        synchronized (predictedMoves) {
+            restoreProvisionalPickups();
+            update(event.getClientTokens(), event.getClientPositions(), event.getLatestSanctions(), null, null);
+            applyResourceDiffs(event.getRemovedTokenDiff(), event.getAddedTokenDiff());
+            acknowledgeMoves(event.getLastInputSequence());
+            replayPredictedMoves();
+        }
+        // a merged frame covers several versions and may overlap ones already applied, which is harmless since its
+        // token changes are absolute. After a gap (the server dropped an update) keep acknowledging the last version
+        // before it so the server's catch-up synchronization covers the missing token changes
+        if (frame.continues(stateVersion)) {
+            stateVersion = frame.getVersion();
+        }
+        Identifier id = getId();
+        clientData.setPosition(clientPositions.get(id));
+        clientData.setCurrentTokens(clientTokens.get(id));
+    }
+
+    public void update(SynchronizeGroupStateEvent event) {
+        if (event.isStale(stateVersion)) {
+            // we've already applied newer frames
+            return;
+        }
+        synchronized (predictedMoves) {
+            restoreProvisionalPickups();
+            update(event.getClientTokens(), event.getClientPositions(), new ArrayDeque<>(), null, null);
+            if (event.isSnapshot()) {
+                synchronized (resourceDistribution) {
+                    resourceDistribution.clear();
+                }
+            }
+            applyResourceDiffs(event.getRemovedResources(), event.getAddedResources());
+            acknowledgeMoves(event.getLastInputSequence());
+            replayPredictedMoves();
+        }
+        stateVersion = event.getVersion();
         Identifier id = getId();
         clientData.setPosition(clientPositions.get(id));
         clientData.setCurrentTokens(clientTokens.get(id));
     }
 
+    /**
+     * Applies token diffs straight from their decoded coordinates.
+     */
+    private void applyResourceDiffs(ResourceDiff removedResources, ResourceDiff addedResources) {
+        synchronized (resourceDistribution) {
+            Point position = new Point();
+            removedResources.forEach((x, y, age) -> {
+                position.setLocation(x, y);
+                resourceDistribution.remove(position);
+            });
+            addedResources.forEach((x, y, age) -> {
+                Resource resource = new Resource(x, y, age);
+                resourceDistribution.put(resource.getPosition(), resource);
+            });
+        }
+    }
+
+    /**
+     * Moves this participant right away instead of waiting for the server and provisionally picks up the token at the
+     * new position. Moves must be predicted in the order they are sent. Every authoritative update rolls the
+     * prediction back to the server's state and replays the moves the server hasn't acknowledged yet, so a move the
+     * server rejects (occupied cell, closed zone, frozen participant) or a token someone else got first is corrected
+     * with the next update.
+     */
+    public void predictMove(Direction direction) {
+        synchronized (predictedMoves) {
+            predictedMoves.addLast(direction);
+            setPredictedPosition(applyPredictedMove(getCurrentPosition(), direction));
+        }
+    }
+
+    public int getNumberOfPredictedMoves() {
+        synchronized (predictedMoves) {
+            return predictedMoves.size();
+        }
+    }
+
+    /**
+     * Drops all predictions, e.g., at the end of a round when the server restarts its move sequence numbers.
+     */
+    public void clearPredictedMoves() {
+        synchronized (predictedMoves) {
+            predictedMoves.clear();
+            provisionalPickups.clear();
+            acknowledgedMoveSequence = 0;
+        }
+    }
+
+    /**
+     * Mirrors GroupDataModel.moveClient for the local participant, returning the new position.
+     */
+    private Point applyPredictedMove(Point position, Direction direction) {
+        Point newPosition = direction.apply(position);
+        if (! isValidPosition(newPosition) || ! isCellAvailable(newPosition) || ! getRoundConfiguration().isTravelAllowed(clientData.getZone(), newPosition)) {
+            return position;
+        }
+        if (! explicitCollectionMode && ! clientData.isExplicitCollectionMode() && clientData.isHarvestingAllowed()) {
+            synchronized (resourceDistribution) {
+                Resource resource = resourceDistribution.remove(newPosition);
+                if (resource != null) {
+                    provisionalPickups.put(newPosition, resource);
+                }
+            }
+        }
+        return newPosition;
+    }
+
+    private void setPredictedPosition(Point position) {
+        clientData.setPosition(position);
+        synchronized (clientPositions) {
+            clientPositions.put(getId(), position);
+        }
+    }
+
+    private void restoreProvisionalPickups() {
+        synchronized (resourceDistribution) {
+            resourceDistribution.putAll(provisionalPickups);
+        }
+        provisionalPickups.clear();
+    }
+
+    /**
+     * Forgets the predicted moves up to the given sequence number, which the server has applied.
+     */
+    private void acknowledgeMoves(long lastSequence) {
+        for (long sequence = acknowledgedMoveSequence; sequence < lastSequence && ! predictedMoves.isEmpty(); sequence++) {
+            predictedMoves.removeFirst();
+        }
+        acknowledgedMoveSequence = Math.max(acknowledgedMoveSequence, lastSequence);
+    }
+
+    /**
+     * Replays the unacknowledged moves on top of the server's position for this participant.
+     */
+    private void replayPredictedMoves() {
+        Point position = clientPositions.get(getId());
+        if (position == null || predictedMoves.isEmpty()) {
+            return;
+        }
+        for (Direction direction : predictedMoves) {
+            position = applyPredictedMove(position, direction);
+        }
+        setPredictedPosition(position);
+    }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public void setStateVersion(long stateVersion) {
+        this.stateVersion = stateVersion;
+    }
+
     public void update(SinglePlayerClientUpdateEvent event) {
         Identifier id = getId();
         clientTokens = event.getClientTokens();
@@ -2,6 +2,7 @@ package edu.asu.commons.foraging.client;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -25,10 +26,13 @@ import edu.asu.commons.foraging.conf.RoundConfiguration;
 import edu.asu.commons.foraging.conf.ServerConfiguration;
 import edu.asu.commons.foraging.event.AgentInfoRequest;
 import edu.asu.commons.foraging.event.BeginChatRoundRequest;
+import edu.asu.commons.foraging.event.ClientMovementBatchRequest;
 import edu.asu.commons.foraging.event.ClientMovementRequest;
 import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
 import edu.asu.commons.foraging.event.CollectTokenRequest;
 import edu.asu.commons.foraging.event.EndRoundEvent;
+import edu.asu.commons.foraging.event.GroupStateAckRequest;
+import edu.asu.commons.foraging.event.HeartbeatEvent;
 import edu.asu.commons.foraging.event.MovementEvent;
 import edu.asu.commons.foraging.event.PostRoundSanctionRequest;
 import edu.asu.commons.foraging.event.PostRoundSanctionUpdateEvent;
@@ -46,7 +50,9 @@ import edu.asu.commons.foraging.event.SinglePlayerClientUpdateEvent;
 import edu.asu.commons.foraging.event.SinglePlayerUpdateRequest;
 import edu.asu.commons.foraging.event.SurveyIdSubmissionRequest;
 import edu.asu.commons.foraging.event.SynchronizeClientEvent;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
 import edu.asu.commons.foraging.event.TrustGameSubmissionRequest;
+import edu.asu.commons.foraging.model.Direction;
 import edu.asu.commons.foraging.model.GroupDataModel;
 import edu.asu.commons.foraging.rules.iu.ForagingStrategy;
 import edu.asu.commons.foraging.server.ForagingServer;
@@ -86,6 +92,10 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
     private JPanel clientPanel = new JPanel();
     private Logger logger = Logger.getLogger(getClass().getName());
 
+    // group state versions are acknowledged at most once per interval unless the server resynchronized us
+    private final static long STATE_ACK_INTERVAL = 1000L;
+    private long lastStateAckTime;
+
     public ForagingClient(ServerConfiguration configuration) {
         super(configuration);
         dataModel = new ClientDataModel(this);
@@ -213,13 +223,36 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
                     dataModel.update(event);
                     getGameWindow2D().collectTokens(event.getCollectedTokenPositions());
                     getGameWindow().update(event.getTimeLeft());
+                    acknowledgeGroupState(false);
+                }
+            }
+        });
+        addEventProcessor(new EventTypeProcessor<HeartbeatEvent>(HeartbeatEvent.class) {
+            public void handle(HeartbeatEvent event) {
+                if (isRoundInProgress()) {
+                    getGameWindow().update(event.getTimeLeft());
                 }
             }
         });
         addEventProcessor(new EventTypeProcessor<SynchronizeClientEvent>(SynchronizeClientEvent.class) {
             public void handle(SynchronizeClientEvent event) {
-                dataModel.setGroupDataModel(event.getGroupDataModel());
-                getGameWindow().update(event.getTimeLeft());
+                // the round is marked in progress only once the game window has started it, but the first full sync
+                // can arrive right after the RoundStartedEvent. Only stale syncs after the EndRoundEvent are ignored.
+                if (messageQueue.isRunning()) {
+                    dataModel.setGroupDataModel(event.getGroupDataModel());
+                    dataModel.setStateVersion(event.getStateVersion());
+                    getGameWindow().update(event.getTimeLeft());
+                    acknowledgeGroupState(true);
+                }
+            }
+        });
+        addEventProcessor(new EventTypeProcessor<SynchronizeGroupStateEvent>(SynchronizeGroupStateEvent.class) {
+            public void handle(SynchronizeGroupStateEvent event) {
+                if (isRoundInProgress()) {
+                    dataModel.update(event);
+                    getGameWindow().update(event.getTimeLeft());
+                    acknowledgeGroupState(true);
+                }
             }
         });
         addEventProcessor(new EventTypeProcessor<ShowExitInstructionsRequest>(ShowExitInstructionsRequest.class) {
@@ -271,6 +304,15 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
                 || (dataModel.isSanctioningAllowed() && dataModel.getCurrentTokens() > 0);
     }
 
+    private void acknowledgeGroupState(boolean immediately) {
+        long stateVersion = dataModel.getStateVersion();
+        long now = System.currentTimeMillis();
+        if (stateVersion > 0 && (immediately || now - lastStateAckTime >= STATE_ACK_INTERVAL)) {
+            lastStateAckTime = now;
+            transmit(new GroupStateAckRequest(getId(), stateVersion));
+        }
+    }
+
     public void transmit(PostRoundSanctionRequest request) {
         if (state == ClientState.WAITING) {
             // System.out.println("Sending post round sanction request");
@@ -288,13 +330,18 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
      * 
      */
     private class MessageQueue implements Runnable {
-        private final static int DEFAULT_MESSAGES_PER_SECOND = 10;
+        private final static int DEFAULT_MESSAGES_PER_SECOND = RoundConfiguration.MOVES_PER_SECOND;
 
         private final LinkedList<Event> actions = new LinkedList<>();
 
+        // moves not sent yet, sent as one sequenced ClientMovementBatchRequest per tick
+        private final ArrayDeque<Direction> bufferedMoves = new ArrayDeque<>();
+        private long nextMoveSequence = 1;
+        private int movesSent;
+
         private final ArrayList<MovementEvent> batchedMovements = new ArrayList<>();
 
-        private boolean running;
+        private volatile boolean running;
 
         private int messagesPerSecond = DEFAULT_MESSAGES_PER_SECOND;
         private int messagesSent;
@@ -313,7 +360,7 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
             channel.add(this, new EventTypeProcessor<ClientMovementRequest>(ClientMovementRequest.class) {
                 public void handle(ClientMovementRequest request) {
                     if (isRoundInProgress()) {
-                        add(request);
+                        addMove(request.getDirection());
                     }
                 }
             });
@@ -353,15 +400,70 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
             }
         }
 
+        /**
+         * Moves beyond the per-second limit wait in the buffer until the next second. The number of moves that are
+         * buffered or sent but not acknowledged yet is capped at max-predicted-moves, since the server's field of
+         * vision margin only covers a participant that is that far ahead of it. The cap defaults to one second's
+         * worth of moves, so every buffered move goes out in the batches of the next second. Further key presses,
+         * typically key repeats while a participant holds down an arrow key, are dropped rather than queued, since
+         * participants can't move faster than messagesPerSecond cells per second anyway and queued moves would keep
+         * the avatar moving after the key was released.
+         */
+        private void addMove(Direction direction) {
+            synchronized (bufferedMoves) {
+                int predictedMoves = dataModel.getNumberOfPredictedMoves();
+                if (predictedMoves < getCurrentRoundConfiguration().getMaxPredictedMoves()) {
+                    bufferedMoves.addLast(direction);
+                    dataModel.predictMove(direction);
+                } else {
+                    logger.fine("Discarding move: " + direction + " - already " + predictedMoves + " moves predicted");
+                }
+            }
+        }
+
+        /**
+         * Sends the buffered moves allowed this second as one batch. Moves are still limited to messagesPerSecond per
+         * second, which paces how fast participants can move, but no longer compete with sanctions for messages.
+         */
+        private void sendMoves() {
+            Direction[] directions;
+            long firstSequence;
+            synchronized (bufferedMoves) {
+                int count = Math.min(bufferedMoves.size(), messagesPerSecond - movesSent);
+                if (count <= 0) {
+                    return;
+                }
+                directions = new Direction[count];
+                for (int i = 0; i < count; i++) {
+                    directions[i] = bufferedMoves.removeFirst();
+                }
+                movesSent += count;
+                firstSequence = nextMoveSequence;
+                nextMoveSequence += count;
+            }
+            transmit(new ClientMovementBatchRequest(getId(), firstSequence, directions));
+        }
+
         public void start() {
             running = true;
             new Thread(this).start();
         }
 
+        public boolean isRunning() {
+            return running;
+        }
+
         public void stop() {
             running = false;
             actions.clear();
             messagesSent = 0;
+            synchronized (bufferedMoves) {
+                bufferedMoves.clear();
+                // the server restarts its move sequence every round as well
+                nextMoveSequence = 1;
+                movesSent = 0;
+            }
+            dataModel.clearPredictedMoves();
         }
 
         public void run() {
@@ -373,6 +475,7 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
                 if (request != null) {
                     transmit(request);
                 }
+                sendMoves();
                 Utils.sleep(ForagingServer.SERVER_SLEEP_INTERVAL);
                 Thread.yield();
             }
@@ -381,6 +484,9 @@ public class ForagingClient extends BaseClient<ServerConfiguration, RoundConfigu
         public Event get() {
             secondTick.onTick((duration) -> {
                 messagesSent = 0;
+                synchronized (bufferedMoves) {
+                    movesSent = 0;
+                }
                 synchronized (batchedMovements) {
                     if (!batchedMovements.isEmpty()) {
                         transmit(new SinglePlayerUpdateRequest(getDataModel().getClientData(), batchedMovements));
@@ -1,5 +1,7 @@
 package edu.asu.commons.foraging.conf;
 
+import java.awt.Point;
+
 import edu.asu.commons.conf.ExperimentRoundParameters;
 import edu.asu.commons.foraging.graphics.Point3D;
 import edu.asu.commons.foraging.model.ClientData;
@@ -46,6 +48,10 @@ public class RoundConfiguration extends ExperimentRoundParameters.Base<ServerCon
     public final static String[] CHAT_HANDLES = { "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", "N", "O", "P", "Q", "R", "S" };
     public final static double DEFAULT_REGROWTH_RATE = 0.01;
     public final static int DEFAULT_ROUND_TIME = 5 * 60;
+    // participants move at most this many cells per second, the client paces its moves to this rate
+    public final static int MOVES_PER_SECOND = 10;
+    // one second's worth of moves
+    public final static int DEFAULT_MAX_PREDICTED_MOVES = MOVES_PER_SECOND;
 
     private static final double DEFAULT_PATCHY_BOTTOM_INITIAL_DISTRIBUTION = 0.25;
     private static final double DEFAULT_PATCHY_TOP_INITIAL_DISTRIBUTION = 0.50;
@@ -207,6 +213,24 @@ public class RoundConfiguration extends ExperimentRoundParameters.Base<ServerCon
         throw new UnsupportedOperationException("view tokens field of vision is not enabled.");
     }
 
+    /**
+     * Returns the number of cells added to the field of vision radii when the server decides which tokens and
+     * subjects to send to a client. A client moves right away and can be up to max-predicted-moves cells away from
+     * the position the server knows about, so the margin defaults to that many cells to keep the edge of its view
+     * filled in.
+     */
+    public int getFieldOfVisionMargin() {
+        return getIntProperty("field-of-vision-margin", getMaxPredictedMoves());
+    }
+
+    /**
+     * Returns the maximum number of moves a client applies locally before the server has acknowledged them, further
+     * moves are dropped until the server catches up.
+     */
+    public int getMaxPredictedMoves() {
+        return getIntProperty("max-predicted-moves", DEFAULT_MAX_PREDICTED_MOVES);
+    }
+
     /**
      * Returns a double between [0, 1] used as a scaling factor modifying the probability
      * that a token grows in a neighboring cell.
@@ -502,6 +526,84 @@ public class RoundConfiguration extends ExperimentRoundParameters.Base<ServerCon
         return getProperty("resource-generator", ResourceDispenser.Type.NEIGHBORHOOD_DENSITY_DEPENDENT.toString());
     }
 
+    /**
+     * Returns the seed for all random streams used in this round. A round-level random-seed takes precedence,
+     * otherwise the seed is derived from the experiment-wide random-seed and this round's index so that repeated
+     * rounds don't replay the same token distributions. Returns null if neither is set.
+     */
+    public Long getRandomSeed() {
+        String randomSeed = getProperty("random-seed");
+        if (randomSeed != null && ! randomSeed.trim().isEmpty()) {
+            return Long.valueOf(randomSeed.trim());
+        }
+        Long experimentSeed = getParentConfiguration().getRandomSeed();
+        if (experimentSeed == null) {
+            return null;
+        }
+        return (experimentSeed * 31L + getRoundIndexLabel().hashCode()) * 31L
+                + getParentConfiguration().getCurrentRepeatedRoundIndex();
+    }
+
+    /**
+     * Returns true if neighborhood density dependent regrowth should only evaluate the frontier of empty cells
+     * adjacent to at least one token instead of scanning the entire board.
+     */
+    public boolean isIncrementalRegrowthEnabled() {
+        return getBooleanProperty("incremental-regrowth", true);
+    }
+
+    /**
+     * Returns true if groups should be regrown concurrently. Only applies to resource generators that support it,
+     * i.e., the neighborhood density dependent and top-bottom patchy generators.
+     */
+    public boolean isParallelRegrowthEnabled() {
+        return getBooleanProperty("parallel-regrowth", getParentConfiguration().isParallelRegrowthEnabled());
+    }
+
+    public int getServerSleepInterval() {
+        return getIntProperty("server-sleep-interval", getParentConfiguration().getServerSleepInterval());
+    }
+
+    public String getTickOverrunPolicy() {
+        return getProperty("tick-overrun-policy", getParentConfiguration().getTickOverrunPolicy());
+    }
+
+    public int getMaxCatchUpTicks() {
+        return getIntProperty("max-catch-up-ticks", getParentConfiguration().getMaxCatchUpTicks());
+    }
+
+    public int getSynchronizationFrequency() {
+        return Math.max(1, getIntProperty("synchronization-frequency", getParentConfiguration().getSynchronizationFrequency()));
+    }
+
+    /**
+     * Returns the number of per-tick group state versions the server retains to catch clients up with a delta
+     * instead of a full snapshot, by default 5 seconds' worth of ticks.
+     */
+    public int getSynchronizationHistorySize() {
+        return getIntProperty("synchronization-history", Math.max(1, 5000 / Math.max(1, getServerSleepInterval())));
+    }
+
+    public int getBotTickInterval() {
+        return getIntProperty("bot-tick-interval", getParentConfiguration().getBotTickInterval());
+    }
+
+    public int getRegrowthInterval() {
+        return getIntProperty("regrowth-interval", getParentConfiguration().getRegrowthInterval());
+    }
+
+    public int getHeartbeatInterval() {
+        return getIntProperty("heartbeat-interval", getParentConfiguration().getHeartbeatInterval());
+    }
+
+    public int getJournalCheckpointInterval() {
+        return getIntProperty("journal-checkpoint-interval", getParentConfiguration().getJournalCheckpointInterval());
+    }
+
+    public int getTickStageBudget(String stage) {
+        return getIntProperty(stage + "-budget", getParentConfiguration().getTickStageBudget(stage));
+    }
+
     /**
      * Returns true if the top and bottom resource zones should be indicated visually
      * using a line and different token images.
@@ -526,6 +628,19 @@ public class RoundConfiguration extends ExperimentRoundParameters.Base<ServerCon
         return getBooleanProperty("restrict-travel-zone-" + zone, false);
     }
 
+    /**
+     * Returns true if a participant assigned to the given zone may enter the given position, i.e., zones aren't
+     * assigned, the zone isn't restricted, or the position is in the top half of the board for zone 0 and in the
+     * bottom half for zone 1. Used by the server and by the client's move prediction.
+     */
+    public boolean isTravelAllowed(int zone, Point position) {
+        if (areZonesAssigned() && isTravelRestricted(zone)) {
+            int positionZone = position.y < getResourceDepth() / 2 ? 0 : 1;
+            return positionZone == zone;
+        }
+        return true;
+    }
+
     public int getWorldWidth() {
         return getResourceWidth() * getResourceWorldScale();
     }
@@ -1,5 +1,6 @@
 package edu.asu.commons.foraging.conf;
 
+import java.io.File;
 import java.text.NumberFormat;
 import java.util.concurrent.TimeUnit;
 
@@ -65,6 +66,29 @@ public class ServerConfiguration extends ExperimentConfiguration.Base<ServerConf
         return getBooleanProperty("single-player", false);
     }
 
+    /**
+     * Returns the experiment-wide random seed or null if random-seed isn't set, in which case every round picks
+     * (and logs) its own seed.
+     */
+    public Long getRandomSeed() {
+        String randomSeed = getProperty("random-seed");
+        if (randomSeed == null || randomSeed.trim().isEmpty()) {
+            return null;
+        }
+        return Long.valueOf(randomSeed.trim());
+    }
+
+    public boolean isParallelRegrowthEnabled() {
+        return getBooleanProperty("parallel-regrowth", false);
+    }
+
+    /**
+     * Returns the number of threads used to regrow groups concurrently when parallel regrowth is enabled.
+     */
+    public int getRegrowthParallelism() {
+        return Math.max(1, getIntProperty("regrowth-parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
     public boolean shouldInitialize3D() {
         for (RoundConfiguration configuration : getAllParameters()) {
             if (configuration.is3dExperiment()) {
@@ -163,8 +187,103 @@ public class ServerConfiguration extends ExperimentConfiguration.Base<ServerConf
         return getProperty("voting-results");
     }
 
+    /**
+     * Returns the server's tick period in milliseconds, i.e., how often processRound() runs while a round is in
+     * progress.
+     */
     public int getServerSleepInterval() {
-        return getIntProperty("server-sleep-interval", 50);
+        return getIntProperty("server-sleep-interval", 75);
+    }
+
+    /**
+     * Returns what the server does when a tick runs past the next tick's deadline, catch-up or skip.
+     */
+    public String getTickOverrunPolicy() {
+        return getProperty("tick-overrun-policy", "catch-up");
+    }
+
+    public int getMaxCatchUpTicks() {
+        return getIntProperty("max-catch-up-ticks", 3);
+    }
+
+    /**
+     * Returns the number of seconds between full state synchronizations sent to each client.
+     */
+    public int getSynchronizationFrequency() {
+        return getIntProperty("synchronization-frequency", 60);
+    }
+
+    /**
+     * Returns how often bots act, in milliseconds.
+     */
+    public int getBotTickInterval() {
+        return getIntProperty("bot-tick-interval", 100);
+    }
+
+    /**
+     * Returns how often resources regrow, in milliseconds.
+     */
+    public int getRegrowthInterval() {
+        return getIntProperty("regrowth-interval", 1000);
+    }
+
+    /**
+     * Returns the maximum number of events queued for a single client before the oldest ones are dropped.
+     */
+    public int getOutboundQueueCapacity() {
+        return getIntProperty("outbound-queue-capacity", 64);
+    }
+
+    /**
+     * Returns how often clients are sent the time left, in milliseconds, while nothing changes in their group.
+     */
+    public int getHeartbeatInterval() {
+        return getIntProperty("heartbeat-interval", 1000);
+    }
+
+    /**
+     * Returns the number of events that can wait for the persister's writer thread before storing them blocks. 0
+     * stores events synchronously on the calling thread.
+     */
+    public int getPersisterQueueCapacity() {
+        return getIntProperty("persister-queue-capacity", 8192);
+    }
+
+    /**
+     * Returns true if persisted events should also be streamed to an append-only journal while a round is running.
+     */
+    public boolean isJournalEnabled() {
+        return getBooleanProperty("journal-enabled", false);
+    }
+
+    /**
+     * Returns the directory round journals are written to, relative to the persistence directory unless absolute.
+     */
+    public File getJournalDirectory() {
+        File directory = new File(getStringProperty("journal-directory", "journal"));
+        return directory.isAbsolute() ? directory : new File(getPersistenceDirectory(), directory.getPath());
+    }
+
+    /**
+     * Returns the longest time in milliseconds journaled events may stay buffered before being forced to disk.
+     */
+    public int getJournalSyncInterval() {
+        return getIntProperty("journal-sync-interval", 1000);
+    }
+
+    /**
+     * Returns how often in milliseconds a GroupStateCheckpoint is written to the round journal, 0 disables checkpoints.
+     */
+    public int getJournalCheckpointInterval() {
+        return getIntProperty("journal-checkpoint-interval", 10000);
+    }
+
+    /**
+     * Returns the time budget in milliseconds for the given stage of a server tick (regrowth, bots, synchronization,
+     * client-updates), e.g., regrowth-budget=20. Defaults to a full tick period.
+     */
+    public int getTickStageBudget(String stage) {
+        return getIntProperty(stage + "-budget", getServerSleepInterval());
     }
 
     public String getInRoundChatInstructions() {
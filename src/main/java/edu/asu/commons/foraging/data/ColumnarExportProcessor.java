@@ -0,0 +1,29 @@
+package edu.asu.commons.foraging.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import edu.asu.commons.experiment.SaveFileProcessor;
+import edu.asu.commons.experiment.SavedRoundData;
+
+/**
+ * Exports each round in the columnar binary format read by ColumnarRoundData.
+ */
+public class ColumnarExportProcessor extends SaveFileProcessor.Base {
+
+    @Override
+    public String getOutputFileExtension() {
+        return "-columns.bin";
+    }
+
+    @Override
+    public void process(SavedRoundData savedRoundData, OutputStream stream) {
+        try {
+            ColumnarRoundData.from(savedRoundData).write(stream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
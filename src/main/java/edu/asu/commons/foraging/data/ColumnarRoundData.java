@@ -0,0 +1,398 @@
+package edu.asu.commons.foraging.data;
+
+import java.awt.Point;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.asu.commons.event.ChatRequest;
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.experiment.SavedRoundData;
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+import edu.asu.commons.foraging.event.MovementEvent;
+import edu.asu.commons.foraging.event.RealTimeSanctionRequest;
+import edu.asu.commons.foraging.event.ResourcesAddedEvent;
+import edu.asu.commons.foraging.event.SanctionAppliedEvent;
+import edu.asu.commons.foraging.event.TokenCollectedEvent;
+import edu.asu.commons.foraging.model.Actor;
+import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * A round's events stored column by column. Every event is a row with a time, actor, group, type and x/y position held
+ * in one primitive array per column; chat messages and sanction targets and amounts are kept in side tables that refer
+ * to their row. Loading a round only allocates the columns instead of deserializing its whole event object graph, and
+ * analyses become loops over a few arrays, e.g., counting a group's tokens is a scan of the type and group columns.
+ *
+ * Positions are the actor's position after a movement, the location of a collected or added token, and the sender's
+ * position for chat and sanctions. An added resource becomes one row per token with no actor. Events without a type
+ * of their own are kept as OTHER rows without a position so that their times still line up with the save file.
+ *
+ * File layout, all numbers big-endian:
+ * <pre>
+ * int MAGIC, short FORMAT_VERSION, int number of rows
+ * int number of actors, then per actor: UTF identifier, int group
+ * columns: long[rows] time, int[rows] actor, int[rows] group, byte[rows] type, int[rows] x, int[rows] y
+ * int number of chat messages, then per message: int row, int target actor, UTF message
+ * int number of sanctions, then per sanction: int row, int target actor, int cost, int penalty
+ * </pre>
+ * Actors and groups are indices into the actor table and the round's ordered groups, -1 if there is none.
+ */
+public class ColumnarRoundData {
+
+    public final static int MAGIC = 0x46434F4C;
+    public final static short FORMAT_VERSION = 1;
+
+    public final static byte OTHER = 0;
+    public final static byte MOVEMENT = 1;
+    public final static byte TOKEN_COLLECTED = 2;
+    public final static byte RESOURCE_ADDED = 3;
+    public final static byte CHAT = 4;
+    public final static byte SANCTION_REQUEST = 5;
+    public final static byte SANCTION_APPLIED = 6;
+
+    private final static int NONE = -1;
+
+    private int rows;
+    private long[] times;
+    private int[] actors;
+    private int[] groups;
+    private byte[] types;
+    private int[] xs;
+    private int[] ys;
+
+    private final List<String> actorIds = new ArrayList<>();
+    private final List<Integer> actorGroups = new ArrayList<>();
+
+    private final List<ChatMessage> chatMessages = new ArrayList<>();
+    private final List<Sanction> sanctions = new ArrayList<>();
+
+    private ColumnarRoundData(int capacity) {
+        times = new long[capacity];
+        actors = new int[capacity];
+        groups = new int[capacity];
+        types = new byte[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+    }
+
+    /**
+     * Converts a saved round, replaying its movements to recover positions the same way AllDataProcessor does.
+     */
+    public static ColumnarRoundData from(SavedRoundData savedRoundData) {
+        RoundConfiguration roundConfiguration = (RoundConfiguration) savedRoundData.getRoundParameters();
+        ServerDataModel dataModel = (ServerDataModel) savedRoundData.getDataModel();
+        dataModel.reinitialize(roundConfiguration);
+        Map<Identifier, Actor> actorMap = dataModel.getActorMap();
+        List<GroupDataModel> orderedGroups = dataModel.getOrderedGroups();
+        Map<Identifier, Integer> actorIndices = new HashMap<>();
+
+        ColumnarRoundData data = new ColumnarRoundData(Math.max(16, savedRoundData.getActions().size()));
+        for (PersistableEvent event : savedRoundData.getActions()) {
+            long time = event.getCreationTime();
+            if (event instanceof ResourcesAddedEvent) {
+                ResourcesAddedEvent resourcesAddedEvent = (ResourcesAddedEvent) event;
+                int group = orderedGroups.indexOf(resourcesAddedEvent.getGroup());
+                for (Point position : resourcesAddedEvent.getResourcePositions()) {
+                    data.addRow(time, NONE, group, RESOURCE_ADDED, position.x, position.y);
+                }
+                continue;
+            }
+            if (event instanceof MovementEvent) {
+                dataModel.apply(event);
+            }
+            Actor actor = actorMap.get(event.getId());
+            int actorIndex = (actor == null) ? NONE : data.indexOf(actor, orderedGroups, actorIndices);
+            int group = (actor == null) ? NONE : orderedGroups.indexOf(actor.getGroupDataModel());
+            Point position = (actor == null) ? null : actor.getPosition();
+            int x = (position == null) ? NONE : position.x;
+            int y = (position == null) ? NONE : position.y;
+            if (event instanceof MovementEvent) {
+                data.addRow(time, actorIndex, group, MOVEMENT, x, y);
+            }
+            else if (event instanceof TokenCollectedEvent) {
+                Point location = ((TokenCollectedEvent) event).getLocation();
+                data.addRow(time, actorIndex, group, TOKEN_COLLECTED, location.x, location.y);
+            }
+            else if (event instanceof ChatRequest) {
+                ChatRequest request = (ChatRequest) event;
+                int target = data.indexOf(actorMap.get(request.getTarget()), orderedGroups, actorIndices);
+                data.chatMessages.add(new ChatMessage(data.rows, target, request.toString()));
+                data.addRow(time, actorIndex, group, CHAT, x, y);
+            }
+            else if (event instanceof RealTimeSanctionRequest) {
+                int target = data.indexOf(actorMap.get(((RealTimeSanctionRequest) event).getTarget()), orderedGroups, actorIndices);
+                data.sanctions.add(new Sanction(data.rows, target, 0, 0));
+                data.addRow(time, actorIndex, group, SANCTION_REQUEST, x, y);
+            }
+            else if (event instanceof SanctionAppliedEvent) {
+                SanctionAppliedEvent sanctionAppliedEvent = (SanctionAppliedEvent) event;
+                int target = data.indexOf(actorMap.get(sanctionAppliedEvent.getTarget()), orderedGroups, actorIndices);
+                data.sanctions.add(new Sanction(data.rows, target, sanctionAppliedEvent.getSanctionCost(), sanctionAppliedEvent.getSanctionPenalty()));
+                data.addRow(time, actorIndex, group, SANCTION_APPLIED, x, y);
+            }
+            else {
+                data.addRow(time, actorIndex, group, OTHER, NONE, NONE);
+            }
+        }
+        return data;
+    }
+
+    public static ColumnarRoundData read(File file) throws IOException {
+        try (InputStream stream = new FileInputStream(file)) {
+            return read(stream);
+        }
+    }
+
+    public static ColumnarRoundData read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("not a columnar round file");
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new StreamCorruptedException("unsupported columnar round format " + version);
+        }
+        int rows = readCount(in);
+        ColumnarRoundData data = new ColumnarRoundData(rows);
+        data.rows = rows;
+        int actorCount = readCount(in);
+        for (int i = 0; i < actorCount; i++) {
+            data.actorIds.add(in.readUTF());
+            data.actorGroups.add(in.readInt());
+        }
+        for (int i = 0; i < rows; i++) {
+            data.times[i] = in.readLong();
+        }
+        readInts(in, data.actors, rows);
+        readInts(in, data.groups, rows);
+        in.readFully(data.types, 0, rows);
+        readInts(in, data.xs, rows);
+        readInts(in, data.ys, rows);
+        int chatCount = readCount(in);
+        for (int i = 0; i < chatCount; i++) {
+            data.chatMessages.add(new ChatMessage(in.readInt(), in.readInt(), in.readUTF()));
+        }
+        int sanctionCount = readCount(in);
+        for (int i = 0; i < sanctionCount; i++) {
+            data.sanctions.add(new Sanction(in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        }
+        return data;
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(rows);
+        out.writeInt(actorIds.size());
+        for (int i = 0; i < actorIds.size(); i++) {
+            out.writeUTF(actorIds.get(i));
+            out.writeInt(actorGroups.get(i));
+        }
+        for (int i = 0; i < rows; i++) {
+            out.writeLong(times[i]);
+        }
+        writeInts(out, actors, rows);
+        writeInts(out, groups, rows);
+        out.write(types, 0, rows);
+        writeInts(out, xs, rows);
+        writeInts(out, ys, rows);
+        out.writeInt(chatMessages.size());
+        for (ChatMessage message : chatMessages) {
+            out.writeInt(message.getRow());
+            out.writeInt(message.getTarget());
+            out.writeUTF(message.getMessage());
+        }
+        out.writeInt(sanctions.size());
+        for (Sanction sanction : sanctions) {
+            out.writeInt(sanction.getRow());
+            out.writeInt(sanction.getTarget());
+            out.writeInt(sanction.getCost());
+            out.writeInt(sanction.getPenalty());
+        }
+        out.flush();
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * The column arrays are returned as is for scanning and may be longer than size(), only the first size() entries
+     * are rows.
+     */
+    public long[] getTimes() {
+        return times;
+    }
+
+    public int[] getActors() {
+        return actors;
+    }
+
+    public int[] getGroups() {
+        return groups;
+    }
+
+    public byte[] getTypes() {
+        return types;
+    }
+
+    public int[] getXs() {
+        return xs;
+    }
+
+    public int[] getYs() {
+        return ys;
+    }
+
+    public int getNumberOfActors() {
+        return actorIds.size();
+    }
+
+    public String getActorId(int actor) {
+        return actorIds.get(actor);
+    }
+
+    public int getActorGroup(int actor) {
+        return actorGroups.get(actor);
+    }
+
+    public List<ChatMessage> getChatMessages() {
+        return chatMessages;
+    }
+
+    public List<Sanction> getSanctions() {
+        return sanctions;
+    }
+
+    private int indexOf(Actor actor, List<GroupDataModel> orderedGroups, Map<Identifier, Integer> actorIndices) {
+        if (actor == null) {
+            return NONE;
+        }
+        Integer index = actorIndices.get(actor.getId());
+        if (index == null) {
+            index = actorIds.size();
+            actorIndices.put(actor.getId(), index);
+            actorIds.add(actor.getId().toString());
+            actorGroups.add(orderedGroups.indexOf(actor.getGroupDataModel()));
+        }
+        return index;
+    }
+
+    private void addRow(long time, int actor, int group, byte type, int x, int y) {
+        if (rows == times.length) {
+            int capacity = rows * 2;
+            times = Arrays.copyOf(times, capacity);
+            actors = Arrays.copyOf(actors, capacity);
+            groups = Arrays.copyOf(groups, capacity);
+            types = Arrays.copyOf(types, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        times[rows] = time;
+        actors[rows] = actor;
+        groups[rows] = group;
+        types[rows] = type;
+        xs[rows] = x;
+        ys[rows] = y;
+        rows++;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new StreamCorruptedException("invalid count: " + count);
+        }
+        return count;
+    }
+
+    private static void readInts(DataInputStream in, int[] column, int rows) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            column[i] = in.readInt();
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] column, int rows) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            out.writeInt(column[i]);
+        }
+    }
+
+    public static class ChatMessage {
+        private final int row;
+        private final int target;
+        private final String message;
+
+        ChatMessage(int row, int target, String message) {
+            this.row = row;
+            this.target = target;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Returns the recipient's actor index, -1 for messages to everyone.
+         */
+        public int getTarget() {
+            return target;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static class Sanction {
+        private final int row;
+        private final int target;
+        private final int cost;
+        private final int penalty;
+
+        Sanction(int row, int target, int cost, int penalty) {
+            this.row = row;
+            this.target = target;
+            this.cost = cost;
+            this.penalty = penalty;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getTarget() {
+            return target;
+        }
+
+        /**
+         * Returns the cost to the sanctioner, 0 for sanction requests.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Returns the penalty to the target, 0 for sanction requests.
+         */
+        public int getPenalty() {
+            return penalty;
+        }
+    }
+
+}
@@ -5,9 +5,11 @@ import edu.asu.commons.experiment.SaveFileProcessor;
 import org.apache.commons.cli.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -29,6 +31,9 @@ public class ForagingSaveFileConverter {
     public ForagingSaveFileConverter() {
         options.addOption("x", "xml", false, "convert XStream XML files instead of serialized .save files");
         options.addOption("b", "bots", false, "generate single player bot statistics");
+        options.addOption("c", "columnar", false, "also export every round in the columnar binary format");
+        options.addOption("j", "journal", false, "list the events in round journal segments instead of converting save files, e.g., for rounds that were never saved");
+        options.addOption("f", "from", true, "with --journal, start at this many seconds into the round from the latest checkpoint before it");
         options.addOption("h", "help", false, "Usage instructions");
     }
 
@@ -52,7 +57,11 @@ public class ForagingSaveFileConverter {
     public boolean convert(String saveDataDirectory, CommandLine commandLine) {
         boolean useXml = commandLine.hasOption("xml");
         boolean hasBots = commandLine.hasOption("bots");
+        boolean exportColumnar = commandLine.hasOption("columnar");
         File allSaveFilesDirectory = new File(saveDataDirectory);
+        if (commandLine.hasOption("journal")) {
+            return convertJournals(allSaveFilesDirectory, commandLine);
+        }
         if (allSaveFilesDirectory.exists() && allSaveFilesDirectory.isDirectory()) {
             List<SaveFileProcessor> processors = new ArrayList<>();
             if (hasBots) {
@@ -82,6 +91,9 @@ public class ForagingSaveFileConverter {
                             )
                         );
             }
+            if (exportColumnar) {
+                processors.add(new ColumnarExportProcessor());
+            }
             logger.info("Processors: " + processors);
             Persister.processSaveFiles(allSaveFilesDirectory, processors, useXml);
             return true;
@@ -89,6 +101,22 @@ public class ForagingSaveFileConverter {
         return false;
     }
 
+    private boolean convertJournals(File journalDirectory, CommandLine commandLine) {
+        if (! journalDirectory.isDirectory()) {
+            return false;
+        }
+        String from = commandLine.getOptionValue("from");
+        long startTimeOffset = (from == null) ? -1 : Math.round(Double.parseDouble(from) * 1000);
+        try {
+            int segments = new RoundJournalProcessor(startTimeOffset).processJournals(journalDirectory);
+            logger.info("Processed " + segments + " round journal segments in " + journalDirectory);
+            return segments > 0;
+        } catch (IOException exception) {
+            logger.log(Level.SEVERE, "Couldn't process round journals in " + journalDirectory, exception);
+            return false;
+        }
+    }
+
     public static void main(String[] args) {
         ForagingSaveFileConverter converter = new ForagingSaveFileConverter();
         CommandLine cmd = converter.parse(args);
@@ -0,0 +1,91 @@
+package edu.asu.commons.foraging.data;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.Map;
+
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.foraging.event.GroupStateCheckpoint;
+import edu.asu.commons.foraging.server.RoundJournal;
+import edu.asu.commons.foraging.server.RoundJournalReader;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Lists the events of RoundJournal segments in a CSV string format, ordered by the time they were stored. Journals
+ * are written while a round is running, so this recovers the events of rounds that were never saved, e.g., because
+ * the server crashed, up to the last complete record.
+ *
+ * If a start time is given, the listing starts with the state of every group in the latest checkpoint before it
+ * followed by the events stored after that checkpoint.
+ */
+class RoundJournalProcessor {
+
+    private final long startTimeOffset;
+
+    /**
+     * @param startTimeOffset milliseconds into the round to start at, or a negative number for the whole round
+     */
+    RoundJournalProcessor(long startTimeOffset) {
+        this.startTimeOffset = startTimeOffset;
+    }
+
+    public String getOutputFileExtension() {
+        return "-journal.txt";
+    }
+
+    /**
+     * Processes every journal segment in the given directory and returns the number of segments processed.
+     */
+    public int processJournals(File directory) throws IOException {
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(RoundJournal.FILE_EXTENSION));
+        if (segments == null) {
+            return 0;
+        }
+        for (File segment : segments) {
+            String name = segment.getName();
+            File output = new File(directory, name.substring(0, name.length() - RoundJournal.FILE_EXTENSION.length()) + getOutputFileExtension());
+            try (RoundJournalReader reader = new RoundJournalReader(segment); PrintWriter writer = new PrintWriter(output, "UTF-8")) {
+                process(reader, writer);
+            }
+        }
+        return segments.length;
+    }
+
+    public void process(RoundJournalReader reader, PrintWriter writer) {
+        writer.println("# " + reader.getRoundLabel() + ", " + reader.getEventCount() + " events"
+                + (reader.isClosedProperly() ? "" : ", not closed properly"));
+        Iterator<PersistableEvent> events = (startTimeOffset < 0) ? reader.iterator()
+                : reader.iteratorFromCheckpoint(startTimeOffset, checkpoint -> processCheckpoint(reader, checkpoint, writer));
+        while (events.hasNext()) {
+            PersistableEvent event = events.next();
+            writer.println(String.format("%d, %s, %s, %s, %s",
+                    event.getCreationTime(),
+                    toSecondString(reader, event.getCreationTime()),
+                    event.getId(),
+                    event.getClass().getSimpleName(),
+                    event));
+        }
+    }
+
+    private void processCheckpoint(RoundJournalReader reader, GroupStateCheckpoint checkpoint, PrintWriter writer) {
+        String time = toSecondString(reader, checkpoint.getCreationTime());
+        for (GroupStateCheckpoint.GroupState group : checkpoint.getGroupStates()) {
+            writer.println(String.format("%d, %s, %d, %d, %s", checkpoint.getCreationTime(), time, group.getGroupId(),
+                    group.getResources().size(), "checkpoint resources"));
+            Map<Identifier, Integer> tokens = group.getActorTokens();
+            for (Map.Entry<Identifier, Point> entry : group.getActorPositions().entrySet()) {
+                Point position = entry.getValue();
+                writer.println(String.format("%d, %s, %d, %s, %d, %d, %s, %s", checkpoint.getCreationTime(), time,
+                        group.getGroupId(), entry.getKey(), position.x, position.y, tokens.get(entry.getKey()), "checkpoint actor"));
+            }
+        }
+    }
+
+    private static String toSecondString(RoundJournalReader reader, long time) {
+        return String.format("%.3f", (time - reader.getStartTime()) / 1000.0d);
+    }
+
+}
@@ -0,0 +1,73 @@
+package edu.asu.commons.foraging.event;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import edu.asu.commons.event.AbstractEvent;
+import edu.asu.commons.event.ClientRequest;
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Consecutive moves by a client sent in one message. Clients number their moves starting at 1 every round, the server
+ * applies them in order, skipping any it has already applied, and acknowledges the last one in the client's next
+ * ClientPositionUpdateEvent.
+ */
+public class ClientMovementBatchRequest extends AbstractEvent implements ClientRequest {
+
+    private static final long serialVersionUID = 4484059378813264052L;
+
+    private final static int MAX_MOVES = 1024;
+
+    // written with the WireCodec, see writeObject
+    private transient long firstSequence;
+    private transient Direction[] directions;
+
+    public ClientMovementBatchRequest(Identifier id, long firstSequence, Direction[] directions) {
+        super(id);
+        this.firstSequence = firstSequence;
+        this.directions = directions;
+    }
+
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    public long getLastSequence() {
+        return firstSequence + directions.length - 1;
+    }
+
+    public Direction[] getDirections() {
+        return directions;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writeVarLong(out, firstSequence);
+        WireCodec.writeVarInt(out, directions.length);
+        for (Direction direction : directions) {
+            WireCodec.writeDirection(out, direction);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        firstSequence = WireCodec.readVarLong(in);
+        int length = WireCodec.readVarInt(in);
+        if (length < 0 || length > MAX_MOVES) {
+            throw new StreamCorruptedException("invalid number of moves: " + length);
+        }
+        directions = new Direction[length];
+        for (int i = 0; i < length; i++) {
+            directions[i] = WireCodec.readDirection(in);
+        }
+    }
+
+    public String toString() {
+        return "Moves " + firstSequence + "-" + getLastSequence() + " from " + getId() + ": " + Arrays.toString(directions);
+    }
+
+}
@@ -1,6 +1,9 @@
 package edu.asu.commons.foraging.event;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import edu.asu.commons.event.AbstractEvent;
 import edu.asu.commons.event.ClientRequest;
@@ -21,11 +24,12 @@ import edu.asu.commons.net.Identifier;
 
 public class ClientMovementRequest extends AbstractEvent implements ClientRequest {
 
-    private static final long serialVersionUID = -871452113459811998L;
+    private static final long serialVersionUID = -871452113459811999L;
 
-    private final Direction direction;
+    // written with the WireCodec, see writeObject
+    private transient Direction direction;
     
-    private Point position;
+    private transient Point position;
 
     public Point getPosition() {
         return position;
@@ -44,6 +48,23 @@ public class ClientMovementRequest extends AbstractEvent implements ClientReques
         return direction;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writeDirection(out, direction);
+        out.writeBoolean(position != null);
+        if (position != null) {
+            WireCodec.writePoint(out, position);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        direction = WireCodec.readDirection(in);
+        if (in.readBoolean()) {
+            position = WireCodec.readPoint(in);
+        }
+    }
+
     public String toString() {
         return "Client update: " + getId() + "\n\tDirection: " + direction;
     }
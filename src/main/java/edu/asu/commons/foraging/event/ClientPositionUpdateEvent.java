@@ -1,6 +1,11 @@
 package edu.asu.commons.foraging.event;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 
@@ -15,6 +20,8 @@ import edu.asu.commons.net.Identifier;
  * $Id$
  * 
  * Only contains the differences between rounds since this event is sent quite frequently.
+ * The group-wide differences live in a GroupUpdateFrame shared by (and encoded once for) all members of the group,
+ * only the collected token positions and latest sanctions are specific to each client.
  * 
  * FIXME: optimize for space further if possible.
  * 
@@ -24,16 +31,14 @@ import edu.asu.commons.net.Identifier;
  */
 public class ClientPositionUpdateEvent extends AbstractEvent {
 
-    private static final long serialVersionUID = -128693557750400520L;
+    private static final long serialVersionUID = 7757106263823938613L;
 
-    private final Point[] collectedTokenPositions;
-    private final Resource[] addedResources;
-    private final Resource[] removedResources;
-    // FIXME: merge these two using a Pair
-    private final Map<Identifier, Integer> clientTokens;
-    private final Map<Identifier, Point> clientPositions;
+    // written with the WireCodec, see writeObject
+    private transient Point[] collectedTokenPositions;
+    private final GroupUpdateFrame frame;
 //    private final List<Point> collectedTokens;
-    private final Queue<RealTimeSanctionRequest> latestSanctions;
+    private transient Queue<RealTimeSanctionRequest> latestSanctions;
+    private transient long lastInputSequence;
     
     private final long timeLeft;
     
@@ -42,14 +47,40 @@ public class ClientPositionUpdateEvent extends AbstractEvent {
             Map<Identifier, Integer> clientTokens,
             Map<Identifier, Point> clientPositions, 
             long timeLeft) {
+        this(data, new GroupUpdateFrame(addedResources, removedResources, clientTokens, clientPositions), timeLeft);
+    }
+
+    public ClientPositionUpdateEvent(ClientData data, GroupUpdateFrame frame, long timeLeft) {
         super(data.getId());
-        this.addedResources = addedResources;
-        this.removedResources = removedResources;
-        this.clientTokens = clientTokens;
-        this.clientPositions = clientPositions;
+        this.frame = frame;
         this.timeLeft = timeLeft;
-        this.latestSanctions = data.getLatestSanctions();
+        // copied since the server resets the client's sanctions right after transmitting this event
+        this.latestSanctions = new LinkedList<>(data.getLatestSanctions());
         this.collectedTokenPositions = data.getCollectedTokenPositions().toArray(new Point[0]);
+        this.lastInputSequence = data.getLastInputSequence();
+    }
+
+    private ClientPositionUpdateEvent(Identifier id, GroupUpdateFrame frame, long timeLeft,
+            Queue<RealTimeSanctionRequest> latestSanctions, Point[] collectedTokenPositions, long lastInputSequence) {
+        super(id);
+        this.frame = frame;
+        this.timeLeft = timeLeft;
+        this.latestSanctions = latestSanctions;
+        this.collectedTokenPositions = collectedTokenPositions;
+        this.lastInputSequence = lastInputSequence;
+    }
+
+    /**
+     * Returns a single update with the effect of this update followed by the given later one for the same client,
+     * for a client that hasn't been sent this update yet. Sanctions and collected tokens of both are kept.
+     */
+    public ClientPositionUpdateEvent merge(ClientPositionUpdateEvent later) {
+        Queue<RealTimeSanctionRequest> mergedSanctions = new LinkedList<>(latestSanctions);
+        mergedSanctions.addAll(later.latestSanctions);
+        Point[] mergedPositions = Arrays.copyOf(collectedTokenPositions, collectedTokenPositions.length + later.collectedTokenPositions.length);
+        System.arraycopy(later.collectedTokenPositions, 0, mergedPositions, collectedTokenPositions.length, later.collectedTokenPositions.length);
+        return new ClientPositionUpdateEvent(id, frame.merge(later.frame), later.timeLeft, mergedSanctions, mergedPositions,
+                later.lastInputSequence);
     }
 
     public int getCurrentTokens() {
@@ -57,7 +88,7 @@ public class ClientPositionUpdateEvent extends AbstractEvent {
     }
     
     public int getCurrentTokens(Identifier id) {
-        return clientTokens.get(id);
+        return frame.getClientTokens().get(id);
     }
     
     public Queue<RealTimeSanctionRequest> getLatestSanctions() {
@@ -65,11 +96,19 @@ public class ClientPositionUpdateEvent extends AbstractEvent {
     }
 
     public Resource[] getAddedTokens() {
-        return addedResources;
+        return frame.getAddedResources();
     }
 
     public Resource[] getRemovedTokens() {
-        return removedResources;
+        return frame.getRemovedResources();
+    }
+
+    public ResourceDiff getAddedTokenDiff() {
+        return frame.getAddedResourceDiff();
+    }
+
+    public ResourceDiff getRemovedTokenDiff() {
+        return frame.getRemovedResourceDiff();
     }
     
     public Point getClientPosition() {
@@ -77,7 +116,7 @@ public class ClientPositionUpdateEvent extends AbstractEvent {
     }
 
     public Point getClientPosition(Identifier id) {
-        return clientPositions.get(id);
+        return frame.getClientPositions().get(id);
     }
     
     public long getTimeLeft() {
@@ -85,14 +124,46 @@ public class ClientPositionUpdateEvent extends AbstractEvent {
     }
 
     public Map<Identifier, Point> getClientPositions() {
-        return clientPositions;
+        return frame.getClientPositions();
     }
 
     public Map<Identifier, Integer> getClientTokens() {
-        return clientTokens;
+        return frame.getClientTokens();
+    }
+
+    public GroupUpdateFrame getFrame() {
+        return frame;
     }
 
     public Point[] getCollectedTokenPositions() {
         return collectedTokenPositions;
     }
+
+    /**
+     * Returns the sequence number of the last batched move the server had applied for this client, 0 if none.
+     */
+    public long getLastInputSequence() {
+        return lastInputSequence;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writePoints(out, collectedTokenPositions);
+        WireCodec.writeVarLong(out, lastInputSequence);
+        WireCodec.writeVarInt(out, latestSanctions.size());
+        for (RealTimeSanctionRequest sanction : latestSanctions) {
+            out.writeObject(sanction);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        collectedTokenPositions = WireCodec.readPoints(in);
+        lastInputSequence = WireCodec.readVarLong(in);
+        int numberOfSanctions = WireCodec.readVarInt(in);
+        latestSanctions = new LinkedList<>();
+        for (int i = 0; i < numberOfSanctions; i++) {
+            latestSanctions.add((RealTimeSanctionRequest) in.readObject());
+        }
+    }
 }
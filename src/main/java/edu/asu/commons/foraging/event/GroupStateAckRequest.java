@@ -0,0 +1,30 @@
+package edu.asu.commons.foraging.event;
+
+import edu.asu.commons.event.AbstractEvent;
+import edu.asu.commons.event.ClientRequest;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Sent by a client to let the server know the latest version of its group's state that it has applied, so the next
+ * periodic synchronization can be a catch-up delta from that version.
+ */
+public class GroupStateAckRequest extends AbstractEvent implements ClientRequest {
+
+    private static final long serialVersionUID = -4204557211983419457L;
+
+    private final long version;
+
+    public GroupStateAckRequest(Identifier id, long version) {
+        super(id);
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String toString() {
+        return "Group state ack from " + getId() + ": " + version;
+    }
+
+}
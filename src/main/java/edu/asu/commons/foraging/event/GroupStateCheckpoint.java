@@ -0,0 +1,162 @@
+package edu.asu.commons.foraging.event;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.asu.commons.event.AbstractPersistableEvent;
+import edu.asu.commons.foraging.bot.Bot;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Snapshot of every group's resources and its members' and bots' positions and token counts, written to the round
+ * journal every journal-checkpoint-interval ms. A replay to some point in the round restores the latest checkpoint
+ * before it and only applies the events stored after that checkpoint instead of every event since the round started.
+ *
+ * Checkpoints only go to the round journal, they are not part of the saved round data.
+ */
+public class GroupStateCheckpoint extends AbstractPersistableEvent {
+
+    private static final long serialVersionUID = -2311536427163802265L;
+
+    private final static int MAX_GROUPS = 1 << 16;
+
+    // written with the WireCodec, see writeObject
+    private transient List<GroupState> groupStates;
+
+    public GroupStateCheckpoint(ServerDataModel serverDataModel) {
+        groupStates = new ArrayList<>();
+        for (GroupDataModel group : serverDataModel.getGroups()) {
+            groupStates.add(new GroupState(group));
+        }
+    }
+
+    public List<GroupState> getGroupStates() {
+        return Collections.unmodifiableList(groupStates);
+    }
+
+    /**
+     * Restores the checkpointed state onto the groups of the given data model, matching groups by id.
+     */
+    public void restore(ServerDataModel serverDataModel) {
+        Map<Long, GroupState> statesById = new HashMap<>();
+        for (GroupState state : groupStates) {
+            statesById.put(state.getGroupId(), state);
+        }
+        for (GroupDataModel group : serverDataModel.getGroups()) {
+            GroupState state = statesById.get(group.getGroupId());
+            if (state != null) {
+                state.restore(group);
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writeVarInt(out, groupStates.size());
+        for (GroupState state : groupStates) {
+            WireCodec.writeVarLong(out, state.groupId);
+            state.resources.write(out);
+            WireCodec.writeClientStates(out, state.actorTokens, state.actorPositions);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = WireCodec.readVarInt(in);
+        if (size < 0 || size > MAX_GROUPS) {
+            throw new StreamCorruptedException("invalid number of groups: " + size);
+        }
+        groupStates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long groupId = WireCodec.readVarLong(in);
+            ResourceDiff resources = ResourceDiff.read(in);
+            Map<Identifier, Integer> actorTokens = new LinkedHashMap<>();
+            Map<Identifier, Point> actorPositions = new LinkedHashMap<>();
+            WireCodec.readClientStates(in, actorTokens, actorPositions);
+            groupStates.add(new GroupState(groupId, resources, actorTokens, actorPositions));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint of " + groupStates.size() + " groups";
+    }
+
+    public static class GroupState {
+        private final long groupId;
+        private final ResourceDiff resources;
+        private final Map<Identifier, Integer> actorTokens;
+        private final Map<Identifier, Point> actorPositions;
+
+        GroupState(GroupDataModel group) {
+            this.groupId = group.getGroupId();
+            this.resources = ResourceDiff.of(group.getResourceDistribution().values());
+            this.actorTokens = new LinkedHashMap<>();
+            this.actorPositions = new LinkedHashMap<>();
+            for (ClientData data : group.getClientDataMap().values()) {
+                actorTokens.put(data.getId(), data.getCurrentTokens());
+                actorPositions.put(data.getId(), new Point(data.getPoint()));
+            }
+            for (Bot bot : group.getBotMap().values()) {
+                actorTokens.put(bot.getId(), bot.getCurrentTokens());
+                actorPositions.put(bot.getId(), new Point(bot.getPosition()));
+            }
+        }
+
+        GroupState(long groupId, ResourceDiff resources, Map<Identifier, Integer> actorTokens, Map<Identifier, Point> actorPositions) {
+            this.groupId = groupId;
+            this.resources = resources;
+            this.actorTokens = actorTokens;
+            this.actorPositions = actorPositions;
+        }
+
+        public long getGroupId() {
+            return groupId;
+        }
+
+        public ResourceDiff getResources() {
+            return resources;
+        }
+
+        public Map<Identifier, Integer> getActorTokens() {
+            return Collections.unmodifiableMap(actorTokens);
+        }
+
+        public Map<Identifier, Point> getActorPositions() {
+            return Collections.unmodifiableMap(actorPositions);
+        }
+
+        void restore(GroupDataModel group) {
+            group.restoreResourceDistribution(resources.toResources());
+            Map<Identifier, ClientData> clients = group.getClientDataMap();
+            Map<Identifier, Bot> bots = group.getBotMap();
+            actorPositions.forEach((id, position) -> {
+                Integer tokens = actorTokens.get(id);
+                ClientData data = clients.get(id);
+                if (data != null) {
+                    data.setPosition(new Point(position));
+                    data.setCurrentTokens(tokens == null ? 0 : tokens);
+                    return;
+                }
+                Bot bot = bots.get(id);
+                if (bot != null) {
+                    bot.setCurrentPosition(new Point(position));
+                    bot.setCurrentTokens(tokens == null ? 0 : tokens);
+                }
+            });
+        }
+    }
+
+}
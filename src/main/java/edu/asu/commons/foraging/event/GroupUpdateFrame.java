@@ -0,0 +1,171 @@
+package edu.asu.commons.foraging.event;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * The group-wide part of a tick's ClientPositionUpdateEvent: resources added and removed and every member's token
+ * count and position. The server builds one frame per group per tick and every member's event refers to it.
+ * Frames published through a GroupStateHistory carry the group's state version, unversioned frames have version 0.
+ * A frame merged from consecutive frames covers the versions from its first version through its version.
+ *
+ * The frame is encoded once into a byte array with the WireCodec (on the first call to getEncoded()) and every
+ * subsequent serialization, i.e., one per group member, just writes out those bytes instead of walking the arrays
+ * and maps again. The frame must not be modified after it has been encoded.
+ */
+public class GroupUpdateFrame implements Serializable {
+
+    private static final long serialVersionUID = -5096114384418792063L;
+
+    private transient long version;
+    private transient long firstVersion;
+    private transient ResourceDiff addedResources;
+    private transient ResourceDiff removedResources;
+    private transient Map<Identifier, Integer> clientTokens;
+    private transient Map<Identifier, Point> clientPositions;
+
+    private transient byte[] encoded;
+
+    public GroupUpdateFrame(Resource[] addedResources, Resource[] removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions) {
+        this(0, addedResources, removedResources, clientTokens, clientPositions);
+    }
+
+    public GroupUpdateFrame(long version, Resource[] addedResources, Resource[] removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions) {
+        this(version, ResourceDiff.of(addedResources), ResourceDiff.of(removedResources), clientTokens, clientPositions);
+    }
+
+    public GroupUpdateFrame(long version, ResourceDiff addedResources, ResourceDiff removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions) {
+        this(version, version, addedResources, removedResources, clientTokens, clientPositions);
+    }
+
+    private GroupUpdateFrame(long firstVersion, long version, ResourceDiff addedResources, ResourceDiff removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions) {
+        this.firstVersion = firstVersion;
+        this.version = version;
+        this.addedResources = addedResources;
+        this.removedResources = removedResources;
+        this.clientTokens = clientTokens;
+        this.clientPositions = clientPositions;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getFirstVersion() {
+        return firstVersion;
+    }
+
+    /**
+     * Returns true if a client that has applied the given version already has this frame's token changes, i.e., a
+     * more recent synchronization overtook this frame.
+     */
+    public boolean isCoveredBy(long appliedVersion) {
+        return version > 0 && version <= appliedVersion;
+    }
+
+    /**
+     * Returns true if this frame continues from the given applied version without a gap, so that a client that
+     * applies it is up to date with this frame's version.
+     */
+    public boolean continues(long appliedVersion) {
+        return version > 0 && (appliedVersion == 0 || firstVersion <= appliedVersion + 1);
+    }
+
+    /**
+     * Returns a frame with the combined effect of this frame followed by the given later frame: the later frame's
+     * token changes win for cells both frames touch and its token counts and positions replace this frame's. Clients
+     * remove tokens before adding them, so a cell removed by one frame and added back by the other ends up present.
+     */
+    public GroupUpdateFrame merge(GroupUpdateFrame later) {
+        ResourceDiff mergedAdded = addedResources.without(later.removedResources).union(later.addedResources);
+        ResourceDiff mergedRemoved = removedResources.union(later.removedResources);
+        return new GroupUpdateFrame(firstVersion, later.version, mergedAdded, mergedRemoved, later.clientTokens, later.clientPositions);
+    }
+
+    /**
+     * Returns a new array with the added resources, prefer getAddedResourceDiff() to apply them.
+     */
+    public Resource[] getAddedResources() {
+        return addedResources.toResources();
+    }
+
+    public Resource[] getRemovedResources() {
+        return removedResources.toResources();
+    }
+
+    public ResourceDiff getAddedResourceDiff() {
+        return addedResources;
+    }
+
+    public ResourceDiff getRemovedResourceDiff() {
+        return removedResources;
+    }
+
+    public Map<Identifier, Integer> getClientTokens() {
+        return clientTokens;
+    }
+
+    public Map<Identifier, Point> getClientPositions() {
+        return clientPositions;
+    }
+
+    /**
+     * Returns the serialized form of this frame, encoding it the first time it is called. Thread-safe, since
+     * events may be serialized on the dispatcher's threads.
+     */
+    public synchronized byte[] getEncoded() {
+        if (encoded == null) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                ObjectOutputStream out = new ObjectOutputStream(bytes);
+                WireCodec.writeVarLong(out, version);
+                WireCodec.writeVarLong(out, version - firstVersion);
+                addedResources.write(out);
+                removedResources.write(out);
+                WireCodec.writeClientStates(out, clientTokens, clientPositions);
+                out.close();
+                encoded = bytes.toByteArray();
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Couldn't encode group update frame", exception);
+            }
+        }
+        return encoded;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        byte[] frame = getEncoded();
+        out.writeInt(frame.length);
+        out.write(frame);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        byte[] frame = new byte[in.readInt()];
+        in.readFully(frame);
+        try (ObjectInputStream frameIn = new ObjectInputStream(new ByteArrayInputStream(frame))) {
+            version = WireCodec.readVarLong(frameIn);
+            firstVersion = version - WireCodec.readVarLong(frameIn);
+            addedResources = ResourceDiff.read(frameIn);
+            removedResources = ResourceDiff.read(frameIn);
+            clientTokens = new HashMap<>();
+            clientPositions = new HashMap<>();
+            WireCodec.readClientStates(frameIn, clientTokens, clientPositions);
+        }
+        encoded = frame;
+    }
+
+}
@@ -0,0 +1,25 @@
+package edu.asu.commons.foraging.event;
+
+import edu.asu.commons.event.AbstractEvent;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Sent instead of a ClientPositionUpdateEvent while nothing has changed in the client's group, so that the client's
+ * round timer keeps running.
+ */
+public class HeartbeatEvent extends AbstractEvent {
+
+    private static final long serialVersionUID = 6930315245112384571L;
+
+    private final long timeLeft;
+
+    public HeartbeatEvent(Identifier id, long timeLeft) {
+        super(id);
+        this.timeLeft = timeLeft;
+    }
+
+    public long getTimeLeft() {
+        return timeLeft;
+    }
+
+}
@@ -0,0 +1,437 @@
+package edu.asu.commons.foraging.event;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.asu.commons.foraging.model.Resource;
+
+/**
+ * A set of added or removed tokens stored as primitive coordinate and age arrays.
+ *
+ * On the wire the positions are written in whichever of three encodings is smallest for this particular diff:
+ * <ul>
+ * <li>a list of coordinates, for a handful of scattered tokens</li>
+ * <li>row runs (row, first column, length), for horizontal streaks such as a freshly regrown top patch</li>
+ * <li>a bitmap over the diff's bounding box, for dense bursts of regrowth or a cleared region</li>
+ * </ul>
+ * followed by the ages, written once if they are all equal (the common case for regrowth). Positions are sorted in
+ * row-major order before encoding, so the decoded order may differ from the original.
+ *
+ * Receivers can apply a diff with forEach without materializing Resource objects for it.
+ */
+public final class ResourceDiff {
+
+    public interface Visitor {
+        void visit(int x, int y, int age);
+    }
+
+    public interface CellFilter {
+        boolean accept(int x, int y);
+    }
+
+    public final static ResourceDiff EMPTY = new ResourceDiff(new int[0], new int[0], new int[0]);
+
+    private final static int LIST = 0;
+    private final static int RUNS = 1;
+    private final static int BITMAP = 2;
+
+    private final static int SAME_AGE = 0;
+    private final static int AGES = 1;
+
+    // bounding boxes larger than this are never worth a bitmap
+    private final static long MAX_BITMAP_CELLS = 1L << 20;
+    // coordinates and counts are packed into 21 bits each when sorting
+    private final static int MAX_PACKED_VALUE = (1 << 21) - 1;
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] ages;
+
+    private ResourceDiff(int[] xs, int[] ys, int[] ages) {
+        this.xs = xs;
+        this.ys = ys;
+        this.ages = ages;
+    }
+
+    public static ResourceDiff of(Collection<Resource> resources) {
+        return of(resources.toArray(new Resource[resources.size()]));
+    }
+
+    public static ResourceDiff of(Resource[] resources) {
+        if (resources == null || resources.length == 0) {
+            return EMPTY;
+        }
+        int size = resources.length;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        int[] ages = new int[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = resources[i].getX();
+            ys[i] = resources[i].getY();
+            ages[i] = resources[i].getAge();
+        }
+        return new ResourceDiff(xs, ys, ages).sorted();
+    }
+
+    /**
+     * Returns this diff in row-major order, which all encodings rely on. Diffs with coordinates that can't be packed
+     * into a sort key are left as they are and can only be written as a list.
+     */
+    private ResourceDiff sorted() {
+        int size = size();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            if (! isPackable(xs[i]) || ! isPackable(ys[i]) || ! isPackable(i)) {
+                return this;
+            }
+            keys[i] = ((long) ys[i] << 42) | ((long) xs[i] << 21) | i;
+        }
+        Arrays.sort(keys);
+        int[] sortedXs = new int[size];
+        int[] sortedYs = new int[size];
+        int[] sortedAges = new int[size];
+        for (int i = 0; i < size; i++) {
+            int original = (int) (keys[i] & MAX_PACKED_VALUE);
+            sortedXs[i] = xs[original];
+            sortedYs[i] = ys[original];
+            sortedAges[i] = ages[original];
+        }
+        return new ResourceDiff(sortedXs, sortedYs, sortedAges);
+    }
+
+    private static boolean isPackable(int value) {
+        return value >= 0 && value <= MAX_PACKED_VALUE;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public boolean isEmpty() {
+        return xs.length == 0;
+    }
+
+    /**
+     * Returns the tokens in rows fromY through toY (inclusive) that pass the given filter. Diffs are normally kept in
+     * row-major order, in which case the row range is located with a binary search and only the tokens in the rows it
+     * spans are filtered. Checking the order is a single pass over all positions, diffs that aren't sorted (e.g.,
+     * with coordinates too large to pack into a sort key) are filtered in full.
+     */
+    public ResourceDiff select(int fromY, int toY, CellFilter filter) {
+        int size = size();
+        int start = 0;
+        int end = size;
+        if (isSorted()) {
+            start = firstIndexInRow(fromY);
+            end = firstIndexInRow(toY + 1);
+        }
+        Builder builder = new Builder();
+        for (int i = start; i < end; i++) {
+            if (ys[i] >= fromY && ys[i] <= toY && filter.accept(xs[i], ys[i])) {
+                builder.add(xs[i], ys[i], ages[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the tokens in this diff or the given one, with the given diff's age for cells that are in both.
+     */
+    public ResourceDiff union(ResourceDiff other) {
+        if (isEmpty()) {
+            return other;
+        }
+        Builder builder = new Builder().addAll(without(other));
+        return builder.addAll(other).build();
+    }
+
+    /**
+     * Returns the tokens in this diff whose cells aren't in the given diff.
+     */
+    public ResourceDiff without(ResourceDiff other) {
+        if (isEmpty() || other.isEmpty()) {
+            return this;
+        }
+        Set<Long> cells = new HashSet<>();
+        other.forEach((x, y, age) -> cells.add(cellKey(x, y)));
+        Builder builder = new Builder();
+        forEach((x, y, age) -> {
+            if (! cells.contains(cellKey(x, y))) {
+                builder.add(x, y, age);
+            }
+        });
+        return builder.build();
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private int firstIndexInRow(int y) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ys[middle] < y) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < xs.length; i++) {
+            visitor.visit(xs[i], ys[i], ages[i]);
+        }
+    }
+
+    public Resource[] toResources() {
+        Resource[] resources = new Resource[size()];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = new Resource(xs[i], ys[i], ages[i]);
+        }
+        return resources;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        int size = size();
+        WireCodec.writeVarInt(out, size);
+        if (size == 0) {
+            return;
+        }
+        // runs and bitmaps need strictly increasing row-major positions, i.e., no duplicates either
+        boolean sorted = isSorted();
+        int listSize = 0;
+        int runsSize = 0;
+        int numberOfRuns = 0;
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        for (int i = 0, runStart = 0, previousY = 0; i < size; i++) {
+            listSize += varIntSize(xs[i]) + varIntSize(ys[i]);
+            if (isEndOfRun(i + 1)) {
+                numberOfRuns++;
+                runsSize += varIntSize(ys[runStart] - previousY) + varIntSize(xs[runStart]) + varIntSize(i + 1 - runStart);
+                previousY = ys[runStart];
+                runStart = i + 1;
+            }
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+        }
+        runsSize += varIntSize(numberOfRuns);
+        int minY = ys[0];
+        long width = (long) maxX - minX + 1;
+        long height = (long) ys[size - 1] - minY + 1;
+        long bitmapSize = Long.MAX_VALUE;
+        if (sorted && width * height <= MAX_BITMAP_CELLS) {
+            bitmapSize = varIntSize(minX) + varIntSize(minY) + varIntSize((int) width) + varIntSize((int) height)
+                    + (width * height + 7) / 8;
+        }
+        if (! sorted || (listSize <= runsSize && listSize <= bitmapSize)) {
+            out.writeByte(LIST);
+            for (int i = 0; i < size; i++) {
+                WireCodec.writeVarInt(out, xs[i]);
+                WireCodec.writeVarInt(out, ys[i]);
+            }
+        }
+        else if (runsSize <= bitmapSize) {
+            out.writeByte(RUNS);
+            WireCodec.writeVarInt(out, numberOfRuns);
+            int runStart = 0;
+            int previousY = 0;
+            for (int i = 1; i <= size; i++) {
+                if (isEndOfRun(i)) {
+                    WireCodec.writeVarInt(out, ys[runStart] - previousY);
+                    WireCodec.writeVarInt(out, xs[runStart]);
+                    WireCodec.writeVarInt(out, i - runStart);
+                    previousY = ys[runStart];
+                    runStart = i;
+                }
+            }
+        }
+        else {
+            out.writeByte(BITMAP);
+            WireCodec.writeVarInt(out, minX);
+            WireCodec.writeVarInt(out, minY);
+            WireCodec.writeVarInt(out, (int) width);
+            WireCodec.writeVarInt(out, (int) height);
+            byte[] bitmap = new byte[(int) ((width * height + 7) / 8)];
+            for (int i = 0; i < size; i++) {
+                int bit = (int) ((ys[i] - minY) * width + (xs[i] - minX));
+                bitmap[bit >>> 3] |= 1 << (bit & 7);
+            }
+            out.write(bitmap);
+        }
+        writeAges(out);
+    }
+
+    /**
+     * Returns true if a run of consecutive cells in a row ends right before index i.
+     */
+    private boolean isEndOfRun(int i) {
+        return i == size() || ys[i] != ys[i - 1] || xs[i] != xs[i - 1] + 1;
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < xs.length; i++) {
+            if (ys[i] < ys[i - 1] || (ys[i] == ys[i - 1] && xs[i] <= xs[i - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeAges(DataOutput out) throws IOException {
+        boolean sameAge = true;
+        for (int i = 1; i < ages.length && sameAge; i++) {
+            sameAge = ages[i] == ages[0];
+        }
+        if (sameAge) {
+            out.writeByte(SAME_AGE);
+            WireCodec.writeVarInt(out, ages[0]);
+        }
+        else {
+            out.writeByte(AGES);
+            for (int age : ages) {
+                WireCodec.writeVarInt(out, age);
+            }
+        }
+    }
+
+    public static ResourceDiff read(DataInput in) throws IOException {
+        int size = WireCodec.readVarInt(in);
+        if (size < 0) {
+            throw new StreamCorruptedException("negative resource diff size: " + size);
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        int encoding = in.readUnsignedByte();
+        switch (encoding) {
+            case LIST:
+                for (int i = 0; i < size; i++) {
+                    xs[i] = WireCodec.readVarInt(in);
+                    ys[i] = WireCodec.readVarInt(in);
+                }
+                break;
+            case RUNS:
+                int numberOfRuns = WireCodec.readVarInt(in);
+                int y = 0;
+                int decoded = 0;
+                for (int run = 0; run < numberOfRuns; run++) {
+                    y += WireCodec.readVarInt(in);
+                    int x = WireCodec.readVarInt(in);
+                    int length = WireCodec.readVarInt(in);
+                    if (length < 0 || decoded + length > size) {
+                        throw new StreamCorruptedException("invalid resource run length: " + length);
+                    }
+                    for (int end = decoded + length; decoded < end; decoded++, x++) {
+                        xs[decoded] = x;
+                        ys[decoded] = y;
+                    }
+                }
+                if (decoded != size) {
+                    throw new StreamCorruptedException("resource runs have " + decoded + " instead of " + size + " tokens");
+                }
+                break;
+            case BITMAP:
+                int minX = WireCodec.readVarInt(in);
+                int minY = WireCodec.readVarInt(in);
+                int width = WireCodec.readVarInt(in);
+                int height = WireCodec.readVarInt(in);
+                if (width <= 0 || height <= 0 || (long) width * height > MAX_BITMAP_CELLS) {
+                    throw new StreamCorruptedException("invalid resource bitmap: " + width + "x" + height);
+                }
+                byte[] bitmap = new byte[(int) (((long) width * height + 7) / 8)];
+                in.readFully(bitmap);
+                int i = 0;
+                for (int bit = 0; bit < width * height; bit++) {
+                    if ((bitmap[bit >>> 3] & (1 << (bit & 7))) != 0) {
+                        if (i == size) {
+                            throw new StreamCorruptedException("resource bitmap has more than " + size + " tokens");
+                        }
+                        xs[i] = minX + bit % width;
+                        ys[i] = minY + bit / width;
+                        i++;
+                    }
+                }
+                if (i != size) {
+                    throw new StreamCorruptedException("resource bitmap has " + i + " instead of " + size + " tokens");
+                }
+                break;
+            default:
+                throw new StreamCorruptedException("unknown resource diff encoding: " + encoding);
+        }
+        int[] ages = new int[size];
+        int ageEncoding = in.readUnsignedByte();
+        if (ageEncoding == SAME_AGE) {
+            Arrays.fill(ages, WireCodec.readVarInt(in));
+        }
+        else {
+            for (int i = 0; i < size; i++) {
+                ages[i] = WireCodec.readVarInt(in);
+            }
+        }
+        return new ResourceDiff(xs, ys, ages);
+    }
+
+    private static int varIntSize(int value) {
+        long zigzag = ((long) value << 1) ^ ((long) value >> 63);
+        int bytes = 1;
+        while ((zigzag & ~0x7FL) != 0) {
+            zigzag >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceDiff [" + size() + " tokens]";
+    }
+
+    /**
+     * Accumulates tokens for a ResourceDiff without creating Resource objects.
+     */
+    public static class Builder {
+        private int[] xs = new int[16];
+        private int[] ys = new int[16];
+        private int[] ages = new int[16];
+        private int size;
+
+        public Builder add(int x, int y, int age) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+                ages = Arrays.copyOf(ages, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            ages[size] = age;
+            size++;
+            return this;
+        }
+
+        public Builder addAll(ResourceDiff diff) {
+            diff.forEach(this::add);
+            return this;
+        }
+
+        public ResourceDiff build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new ResourceDiff(Arrays.copyOf(xs, size), Arrays.copyOf(ys, size), Arrays.copyOf(ages, size)).sorted();
+        }
+    }
+
+}
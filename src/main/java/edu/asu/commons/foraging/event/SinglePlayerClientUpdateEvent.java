@@ -1,6 +1,10 @@
 package edu.asu.commons.foraging.event;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
 import java.util.Map;
 
 import edu.asu.commons.event.AbstractEvent;
@@ -16,13 +20,14 @@ import edu.asu.commons.net.Identifier;
  */
 public class SinglePlayerClientUpdateEvent extends AbstractEvent {
 
-    private static final long serialVersionUID = -128693557750400520L;
+    private static final long serialVersionUID = -128693557750400521L;
 
-    private final Map<Identifier, Integer> clientTokens;
-    private final Map<Identifier, Point> clientPositions;
-    private final Resource[] addedResources;
-    private final Point[] removedResources;
-    private final long timeLeft;
+    // all fields are written with the WireCodec, see writeObject
+    private transient Map<Identifier, Integer> clientTokens;
+    private transient Map<Identifier, Point> clientPositions;
+    private transient Resource[] addedResources;
+    private transient Point[] removedResources;
+    private transient long timeLeft;
     
     public SinglePlayerClientUpdateEvent(Identifier id, long timeLeft, 
             Map<Identifier, Point> clientPositions,
@@ -66,4 +71,22 @@ public class SinglePlayerClientUpdateEvent extends AbstractEvent {
         return clientTokens;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writeVarLong(out, timeLeft);
+        WireCodec.writeClientStates(out, clientTokens, clientPositions);
+        ResourceDiff.of(addedResources).write(out);
+        WireCodec.writePoints(out, removedResources);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        timeLeft = WireCodec.readVarLong(in);
+        clientTokens = new HashMap<>();
+        clientPositions = new HashMap<>();
+        WireCodec.readClientStates(in, clientTokens, clientPositions);
+        addedResources = ResourceDiff.read(in).toResources();
+        removedResources = WireCodec.readPoints(in);
+    }
+
 }
@@ -17,7 +17,8 @@ import edu.asu.commons.net.Identifier;
  * Maintains a Map of all clients and their locations (denoted by
  * java.awt.Point-S) as well as a list of food positions, if the food is visible.
  * 
- * Only sends the client data map for a given Group, not the entire server game state.
+ * Only sends the client data map for a given Group, not the entire server game state. This is the full
+ * synchronization sent at the start of a round, periodic resynchronization uses SynchronizeGroupStateEvent.
  * 
  * @author Deepali Bhagvat
  * @author Allen Lee
@@ -25,19 +26,36 @@ import edu.asu.commons.net.Identifier;
  */
 public class SynchronizeClientEvent extends AbstractEvent {
 
-    private static final long serialVersionUID = -128693557750400520L;
+    private static final long serialVersionUID = -128693557750400521L;
 
     private final GroupDataModel groupDataModel;
     private final long timeLeft;
+    private final long stateVersion;
     
     public SynchronizeClientEvent(ClientData clientData, long timeLeft) {
-        this(clientData.getId(), clientData.getGroupDataModel(), timeLeft);
+        this(clientData.getId(), clientData.getGroupDataModel(), timeLeft, 0);
+    }
+    
+    public SynchronizeClientEvent(ClientData clientData, long timeLeft, long stateVersion) {
+        this(clientData.getId(), clientData.getGroupDataModel(), timeLeft, stateVersion);
     }
     
     public SynchronizeClientEvent(Identifier id, GroupDataModel groupDataModel, long timeLeft) {
+        this(id, groupDataModel, timeLeft, 0);
+    }
+
+    public SynchronizeClientEvent(Identifier id, GroupDataModel groupDataModel, long timeLeft, long stateVersion) {
         super(id);
         this.groupDataModel = groupDataModel;
         this.timeLeft = timeLeft;
+        this.stateVersion = stateVersion;
+    }
+
+    /**
+     * Returns the version of the group state this event was sent at, 0 if unversioned.
+     */
+    public long getStateVersion() {
+        return stateVersion;
     }
     
     public GroupDataModel getGroupDataModel() {
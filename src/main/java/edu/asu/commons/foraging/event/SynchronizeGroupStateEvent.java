@@ -0,0 +1,134 @@
+package edu.asu.commons.foraging.event;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.asu.commons.event.AbstractEvent;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Periodic resynchronization of a client with its group's state at a given version, the compact replacement for
+ * sending the whole GroupDataModel in a SynchronizeClientEvent.
+ *
+ * A catch-up delta carries the net token changes since the base version the client last acknowledged. A snapshot
+ * (base version SNAPSHOT) carries every token on the board and replaces the client's resource distribution. Both
+ * carry the absolute token counts and positions of all group members, and acknowledge the receiving client's batched
+ * moves like a ClientPositionUpdateEvent.
+ */
+public class SynchronizeGroupStateEvent extends AbstractEvent {
+
+    private static final long serialVersionUID = 2113904457310728961L;
+
+    public final static long SNAPSHOT = -1L;
+
+    // all fields are written with the WireCodec, see writeObject
+    private transient long version;
+    private transient long baseVersion;
+    private transient ResourceDiff addedResources;
+    private transient ResourceDiff removedResources;
+    private transient Map<Identifier, Integer> clientTokens;
+    private transient Map<Identifier, Point> clientPositions;
+    private transient long timeLeft;
+    private transient long lastInputSequence;
+
+    public SynchronizeGroupStateEvent(Identifier id, long version, long baseVersion,
+            ResourceDiff addedResources, ResourceDiff removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions,
+            long timeLeft, long lastInputSequence) {
+        super(id);
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.addedResources = addedResources;
+        this.removedResources = removedResources;
+        this.clientTokens = clientTokens;
+        this.clientPositions = clientPositions;
+        this.timeLeft = timeLeft;
+        this.lastInputSequence = lastInputSequence;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public boolean isSnapshot() {
+        return baseVersion == SNAPSHOT;
+    }
+
+    /**
+     * Returns true if a client that has applied the given version has already applied newer frames than this
+     * synchronization.
+     */
+    public boolean isStale(long appliedVersion) {
+        return version < appliedVersion;
+    }
+
+    /**
+     * Returns all tokens for a snapshot, the tokens added since the base version otherwise.
+     */
+    public ResourceDiff getAddedResources() {
+        return addedResources;
+    }
+
+    public ResourceDiff getRemovedResources() {
+        return removedResources;
+    }
+
+    public Map<Identifier, Integer> getClientTokens() {
+        return clientTokens;
+    }
+
+    public Map<Identifier, Point> getClientPositions() {
+        return clientPositions;
+    }
+
+    public long getTimeLeft() {
+        return timeLeft;
+    }
+
+    /**
+     * Returns the sequence number of the last batched move the server had applied for the receiving client, 0 if
+     * none.
+     */
+    public long getLastInputSequence() {
+        return lastInputSequence;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        WireCodec.writeVarLong(out, version);
+        WireCodec.writeVarLong(out, baseVersion);
+        WireCodec.writeVarLong(out, timeLeft);
+        WireCodec.writeVarLong(out, lastInputSequence);
+        addedResources.write(out);
+        removedResources.write(out);
+        WireCodec.writeClientStates(out, clientTokens, clientPositions);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        version = WireCodec.readVarLong(in);
+        baseVersion = WireCodec.readVarLong(in);
+        timeLeft = WireCodec.readVarLong(in);
+        lastInputSequence = WireCodec.readVarLong(in);
+        addedResources = ResourceDiff.read(in);
+        removedResources = ResourceDiff.read(in);
+        clientTokens = new HashMap<>();
+        clientPositions = new HashMap<>();
+        WireCodec.readClientStates(in, clientTokens, clientPositions);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SynchronizeGroupStateEvent [%s, version %d, %s, +%d -%d tokens]", getId(), version,
+                isSnapshot() ? "snapshot" : "since " + baseVersion, addedResources.size(), removedResources.size());
+    }
+
+}
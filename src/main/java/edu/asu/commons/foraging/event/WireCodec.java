@@ -0,0 +1,163 @@
+package edu.asu.commons.foraging.event;
+
+import java.awt.Point;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Compact binary encoding for the fields of events that are sent to or from every client several times a second.
+ * Those events write their fields through these methods in custom writeObject / readObject methods, so the sesef
+ * dispatcher still sends them as regular serialized events and everything else keeps using default serialization.
+ *
+ * Integers are zigzag varints (coordinates and token counts usually fit in a single byte), directions are a single
+ * byte, token diffs are written by ResourceDiff and the token count and position of each group member are written
+ * as one record keyed by the member's Identifier, which is written once instead of once per map along with two
+ * HashMap object graphs.
+ *
+ * Only used for transient network events, persisted events keep their serialized form so that existing save files
+ * can still be read.
+ */
+final class WireCodec {
+
+    private final static int HAS_TOKENS = 1;
+    private final static int HAS_POSITION = 2;
+
+    private WireCodec() {
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new StreamCorruptedException("malformed varint");
+    }
+
+    public static void writePoint(DataOutput out, Point point) throws IOException {
+        writeVarInt(out, point.x);
+        writeVarInt(out, point.y);
+    }
+
+    public static Point readPoint(DataInput in) throws IOException {
+        int x = readVarInt(in);
+        return new Point(x, readVarInt(in));
+    }
+
+    /**
+     * Writes the given points, which may be null but must not contain nulls.
+     */
+    public static void writePoints(DataOutput out, Point[] points) throws IOException {
+        if (points == null) {
+            writeVarInt(out, -1);
+            return;
+        }
+        writeVarInt(out, points.length);
+        for (Point point : points) {
+            writePoint(out, point);
+        }
+    }
+
+    public static Point[] readPoints(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            return null;
+        }
+        Point[] points = new Point[length];
+        for (int i = 0; i < length; i++) {
+            points[i] = readPoint(in);
+        }
+        return points;
+    }
+
+    public static void writeDirection(DataOutput out, Direction direction) throws IOException {
+        out.writeByte(direction == null ? -1 : direction.ordinal());
+    }
+
+    public static Direction readDirection(DataInput in) throws IOException {
+        int ordinal = in.readByte();
+        if (ordinal < 0) {
+            return null;
+        }
+        Direction[] directions = Direction.values();
+        if (ordinal >= directions.length) {
+            throw new StreamCorruptedException("invalid direction: " + ordinal);
+        }
+        return directions[ordinal];
+    }
+
+    /**
+     * Writes the token counts and positions of a group's members as one record per member.
+     */
+    public static void writeClientStates(ObjectOutput out, Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions)
+            throws IOException {
+        Set<Identifier> ids = new LinkedHashSet<>(clientTokens.keySet());
+        ids.addAll(clientPositions.keySet());
+        writeVarInt(out, ids.size());
+        for (Identifier id : ids) {
+            Integer tokens = clientTokens.get(id);
+            Point position = clientPositions.get(id);
+            out.writeObject(id);
+            out.writeByte((tokens == null ? 0 : HAS_TOKENS) | (position == null ? 0 : HAS_POSITION));
+            if (tokens != null) {
+                writeVarInt(out, tokens);
+            }
+            if (position != null) {
+                writePoint(out, position);
+            }
+        }
+    }
+
+    /**
+     * Reads records written by writeClientStates into the given maps.
+     */
+    public static void readClientStates(ObjectInput in, Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions)
+            throws IOException, ClassNotFoundException {
+        int size = readVarInt(in);
+        for (int i = 0; i < size; i++) {
+            Identifier id = (Identifier) in.readObject();
+            int flags = in.readUnsignedByte();
+            if ((flags & HAS_TOKENS) != 0) {
+                clientTokens.put(id, readVarInt(in));
+            }
+            if ((flags & HAS_POSITION) != 0) {
+                clientPositions.put(id, readPoint(in));
+            }
+        }
+    }
+
+}
@@ -68,6 +68,8 @@ public class ClientData implements Serializable, Actor {
     private ForagingStrategy votedRule;
     private ArrayList<String> trustGameLog = new ArrayList<>();
     private ArrayList<Point> collectedTokenPositions = new ArrayList<>();
+    // server-side only, sequence number of the last batched move applied this round
+    private transient long lastInputSequence;
 
     // String fields to be set and formatted for use in templates.
     private String grandTotalIncome;
@@ -108,6 +110,7 @@ public class ClientData implements Serializable, Actor {
 
     public void setPosition(Point3D position) {
         this.position = position;
+        markGroupDirty();
     }
 
     /**
@@ -120,6 +123,7 @@ public class ClientData implements Serializable, Actor {
 
     public void addTokens(int tokens) {
         currentTokens += tokens;
+        markGroupDirty();
         // this can only be invoked on the server side
         RoundConfiguration configuration = getGroupDataModel().getRoundConfiguration();
         if (!configuration.isPracticeRound()) {
@@ -208,6 +212,7 @@ public class ClientData implements Serializable, Actor {
     private int subtractTokens(int amount) {
         int tokensToSubtract = Math.min(currentTokens, amount);
         currentTokens -= tokensToSubtract;
+        markGroupDirty();
         RoundConfiguration configuration = getGroupDataModel().getRoundConfiguration();
         if (!configuration.isPracticeRound()) {
             totalTokens -= tokensToSubtract;
@@ -288,6 +293,30 @@ public class ClientData implements Serializable, Actor {
         return latestSanctions;
     }
 
+    public long getLastInputSequence() {
+        return lastInputSequence;
+    }
+
+    /**
+     * Records the last applied move, which is acknowledged to the client in its next position update.
+     */
+    public void setLastInputSequence(long lastInputSequence) {
+        this.lastInputSequence = lastInputSequence;
+        markGroupDirty();
+    }
+
+    public void addLatestSanction(RealTimeSanctionRequest request) {
+        latestSanctions.add(request);
+        markGroupDirty();
+    }
+
+    private void markGroupDirty() {
+        GroupDataModel group = getGroupDataModel();
+        if (group != null) {
+            group.markDirty();
+        }
+    }
+
     public Identifier getId() {
         return id;
     }
@@ -338,6 +367,7 @@ public class ClientData implements Serializable, Actor {
     public void reset() {
         resetCurrentTokens();
         resetLatestSanctions();
+        lastInputSequence = 0;
         foragingRole = ForagingRole.HARVEST;
         taxReceived = false;
     }
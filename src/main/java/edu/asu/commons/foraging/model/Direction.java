@@ -3,6 +3,7 @@ package edu.asu.commons.foraging.model;
 import java.awt.Point;
 import java.awt.event.KeyEvent;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * $Id$
@@ -76,6 +77,13 @@ public enum Direction {
         }
         return Direction.values()[rng.nextInt(4)];
     }
+
+    /**
+     * @return a Direction selected using the given random stream
+     */
+    public static Direction random(SplittableRandom random) {
+        return Direction.values()[random.nextInt(4)];
+    }
     
     public static Direction towards(Point a, Point b) {
         int dx = a.x - b.x;
@@ -10,7 +10,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -55,6 +57,9 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     private final Map<Identifier, ClientData> clients = new HashMap<>();
     // FIXME: making this transient causes a NPE in the facilitator, should be transient however.
     private final Map<Point, Resource> resourceDistribution = new HashMap<>();
+    // primitive (x, y) indexed mirror of resourceDistribution, lazily rebuilt from the map since it isn't serialized.
+    // all writes happen while holding the resourceDistribution lock.
+    private transient volatile ResourceGrid resourceGrid;
     private final List<Bot> bots = new ArrayList<>();
 
     private final transient Map<Identifier, Resource> resourceOwners = new HashMap<>();
@@ -62,6 +67,13 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     private transient Set<Resource> addedResources;
 
     private transient ServerDataModel serverDataModel;
+    // per-component random streams for this group, rederived whenever the server's RandomStreams change (every round)
+    private transient Map<String, SplittableRandom> randoms;
+    private transient RandomStreams randomStreams;
+    // server-side only, versions the updates sent to this group's clients
+    private transient GroupStateHistory stateHistory;
+    // server-side only, set when a member's position, tokens or sanctions change, see takeChanges()
+    private final transient AtomicBoolean dirty = new AtomicBoolean(true);
 
     private final long groupId;
     private volatile static long nextGroupId = 0;
@@ -112,6 +124,10 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     }
 
     public int getNumberOfNeighboringTokens(Point referencePoint) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            return grid.countNeighbors(referencePoint.x, referencePoint.y);
+        }
         int numberOfNeighboringTokens = 0;
         int currentX = referencePoint.x;
         int currentY = referencePoint.y;
@@ -241,7 +257,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         if (activeEnforcementMechanism.hasMonitor()) {
             // pick a random person from the clients
             ArrayList<ClientData> clientDataList = new ArrayList<ClientData>(clients.values());
-            Collections.shuffle(clientDataList);
+            RandomStreams.shuffle(clientDataList, getRandom(RandomStreams.GROUP));
             // pick the first client from the shuffled list and set their role to MONITOR
             activeMonitor = clientDataList.remove(0);
             activeMonitor.setForagingRole(ForagingRole.MONITOR);
@@ -313,17 +329,27 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         for (ClientData clientState : clients.values()) {
             clientState.reset();
         }
-        getRemovedResources().addAll(resourceDistribution.values());
-        getAddedResources().clear();
-        resourceDistribution.clear();
+        synchronized (resourceDistribution) {
+            getRemovedResources().addAll(resourceDistribution.values());
+            getAddedResources().clear();
+            clearResourceDistribution();
+        }
     }
 
     /**
      * Perform all cleanup.
      */
     public void cleanupRound() {
-        resourceDistribution.clear();
+        synchronized (resourceDistribution) {
+            clearResourceDistribution();
+        }
         clearDiffLists();
+        synchronized (this) {
+            if (stateHistory != null) {
+                stateHistory.clear();
+            }
+        }
+        markDirty();
         activeEnforcementMechanism = EnforcementMechanism.NONE;
         activeSanctionMechanism = SanctionMechanism.NONE;
         submittedRegulations.clear();
@@ -331,7 +357,191 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     }
 
     public boolean isResourceAt(Point position) {
-        return resourceDistribution.containsKey(position);
+        return isResourceAt(position.x, position.y);
+    }
+
+    /**
+     * Allocation-free variant of isResourceAt(Point), backed by the ResourceGrid when the board dimensions are
+     * known (i.e., on the server and during replays) and by the resource distribution map otherwise.
+     */
+    public boolean isResourceAt(int x, int y) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            return grid.contains(x, y);
+        }
+        return resourceDistribution.containsKey(new Point(x, y));
+    }
+
+    /**
+     * Returns the age of the resource at (x, y) or 0 if there is no resource at that location.
+     */
+    public int getResourceAge(int x, int y) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            return grid.getAge(x, y);
+        }
+        Resource resource = resourceDistribution.get(new Point(x, y));
+        return resource == null ? 0 : resource.getAge();
+    }
+
+    public int getNumberOfNeighboringTokens(int x, int y) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            return grid.countNeighbors(x, y);
+        }
+        return getNumberOfNeighboringTokens(new Point(x, y));
+    }
+
+    /**
+     * Returns the position of the resource closest to the given position or null if there are no resources left.
+     */
+    public Point getNearestResourcePosition(Point position) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            int index = grid.nearest(position.x, position.y);
+            return index < 0 ? null : grid.toPoint(index);
+        }
+        Point nearestPosition = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Point resourcePosition : getResourcePositions()) {
+            double distance = position.distanceSq(resourcePosition);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestPosition = resourcePosition;
+            }
+        }
+        return nearestPosition;
+    }
+
+    /**
+     * Returns the position of the nth resource (0 <= n < getResourceDistributionSize()) in a stable row-major
+     * ordering, or null if n is out of range. Used to pick a random resource without copying the distribution.
+     */
+    public Point getResourcePosition(int n) {
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            int index = grid.nthOccupied(n);
+            return index < 0 ? null : grid.toPoint(index);
+        }
+        for (Point point : getResourcePositions()) {
+            if (n-- == 0) {
+                return point;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the version history of this group's state, only available on the server.
+     */
+    public synchronized GroupStateHistory getStateHistory() {
+        if (stateHistory == null) {
+            stateHistory = new GroupStateHistory(getRoundConfiguration().getSynchronizationHistorySize());
+        }
+        return stateHistory;
+    }
+
+    /**
+     * Returns this group's random stream for the given component in the current round. Repeated calls return the same
+     * SplittableRandom, which is not thread-safe and should only be used by one thread at a time.
+     */
+    public synchronized SplittableRandom getRandom(String component) {
+        RandomStreams currentRandomStreams = getRandomStreams();
+        if (randoms == null || currentRandomStreams != randomStreams) {
+            randoms = new HashMap<>();
+            randomStreams = currentRandomStreams;
+        }
+        SplittableRandom random = randoms.get(component);
+        if (random == null) {
+            random = randomStreams.create(component, getStreamId());
+            randoms.put(component, random);
+        }
+        return random;
+    }
+
+    /**
+     * Returns a new random stream for the given component and id (e.g., a bot number) within this group.
+     */
+    public SplittableRandom createRandom(String component, long id) {
+        return getRandomStreams().create(component, getStreamId(), id);
+    }
+
+    /**
+     * Random streams are keyed by the group's position among the round's ordered groups rather than by its group id,
+     * group ids keep increasing for as long as the server runs and would make the streams depend on how many groups
+     * were created before this one.
+     */
+    private long getStreamId() {
+        if (serverDataModel != null) {
+            int index = serverDataModel.getOrderedGroups().indexOf(this);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return groupId;
+    }
+
+    private RandomStreams getRandomStreams() {
+        if (serverDataModel != null) {
+            return serverDataModel.getRandomStreams();
+        }
+        // client-side copies don't need reproducible streams
+        return (randomStreams == null) ? RandomStreams.createUnseeded() : randomStreams;
+    }
+
+    /**
+     * Returns the ResourceGrid mirroring this group's resource distribution, rebuilding it if the board dimensions
+     * have changed. Returns null if the board dimensions are unknown, e.g., on a deserialized client-side copy.
+     */
+    public ResourceGrid getResourceGrid() {
+        ResourceGrid grid = resourceGrid;
+        if (serverDataModel == null) {
+            return null;
+        }
+        int width = serverDataModel.getBoardWidth();
+        int height = serverDataModel.getBoardHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        if (grid == null || grid.getWidth() != width || grid.getHeight() != height) {
+            synchronized (resourceDistribution) {
+                grid = resourceGrid;
+                if (grid == null || grid.getWidth() != width || grid.getHeight() != height) {
+                    grid = new ResourceGrid(width, height);
+                    for (Resource resource : resourceDistribution.values()) {
+                        grid.add(resource.getX(), resource.getY(), resource.getAge());
+                    }
+                    resourceGrid = grid;
+                }
+            }
+        }
+        return grid;
+    }
+
+    // the following must be invoked while holding the resourceDistribution lock
+    private void putResource(Resource resource) {
+        resourceDistribution.put(resource.getPosition(), resource);
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            grid.add(resource.getX(), resource.getY(), resource.getAge());
+        }
+    }
+
+    private Resource takeResource(Point position) {
+        Resource resource = resourceDistribution.remove(position);
+        ResourceGrid grid = getResourceGrid();
+        if (grid != null) {
+            grid.remove(position.x, position.y);
+        }
+        return resource;
+    }
+
+    private void clearResourceDistribution() {
+        resourceDistribution.clear();
+        ResourceGrid grid = resourceGrid;
+        if (grid != null) {
+            grid.clear();
+        }
     }
 
     public void addResource(Point position) {
@@ -343,9 +553,8 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     }
 
     public void addResource(Resource resource) {
-        Point position = resource.getPosition();
         synchronized (resourceDistribution) {
-            resourceDistribution.put(position, resource);
+            putResource(resource);
         }
         getAddedResources().add(resource);
     }
@@ -354,7 +563,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         synchronized (resourceDistribution) {
             for (Point point : locations) {
                 Resource resource = new Resource(point);
-                resourceDistribution.put(point, resource);
+                putResource(resource);
                 getAddedResources().add(resource);
             }
         }
@@ -363,8 +572,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     public void addResources(Set<Resource> resources) {
         synchronized (resourceDistribution) {
             for (Resource resource : resources) {
-                Point position = resource.getPosition();
-                resourceDistribution.put(position, resource);
+                putResource(resource);
                 getAddedResources().add(resource);
             }
         }
@@ -373,12 +581,12 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     void moveResources(Collection<Point> removedResources, Collection<Point> addedResources) {
         synchronized (resourceDistribution) {
             for (Point oldLocation : removedResources) {
-                Resource oldResource = resourceDistribution.remove(oldLocation);
+                Resource oldResource = takeResource(oldLocation);
                 getRemovedResources().add(oldResource);
             }
             for (Point newLocation : addedResources) {
                 Resource newResource = new Resource(newLocation);
-                resourceDistribution.put(newLocation, newResource);
+                putResource(newResource);
                 getAddedResources().add(newResource);
             }
         }
@@ -391,10 +599,24 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
      */
     public void removeResource(Point position) {
         synchronized (resourceDistribution) {
-            resourceDistribution.remove(position);
+            takeResource(position);
         }
     }
 
+    /**
+     * Replaces the resource distribution with the given resources without recording them in the diff lists, used when
+     * replaying a round from a GroupStateCheckpoint.
+     */
+    public void restoreResourceDistribution(Resource[] resources) {
+        synchronized (resourceDistribution) {
+            clearResourceDistribution();
+            for (Resource resource : resources) {
+                putResource(resource);
+            }
+        }
+        markDirty();
+    }
+
     public Set<Identifier> getClientIdentifiers() {
         return Collections.unmodifiableSet(clients.keySet());
     }
@@ -466,6 +688,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         Point newPosition = direction.apply(bot.getPosition());
         if (serverDataModel.isValidPosition(newPosition) && isCellAvailable(newPosition)) {
             bot.setCurrentPosition(newPosition);
+            markDirty();
             getEventChannel().handle(new MovementEvent(bot.getId(), direction));
             return true;
         }
@@ -537,14 +760,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
      * available), based on zone rules.
      */
     private boolean isCellAllowed(ClientData clientData, Point position) {
-        RoundConfiguration roundConfiguration = getRoundConfiguration();
-        if (roundConfiguration.areZonesAssigned() && roundConfiguration.isTravelRestricted(clientData.getZone())) {
-            int positionZone = position.y < serverDataModel.getBoardHeight() / 2 ? 0 : 1;
-            if (positionZone != clientData.getZone()) {
-                return false;
-            }
-        }
-        return true;
+        return getRoundConfiguration().isTravelAllowed(clientData.getZone(), position);
     }
 
     /**
@@ -564,9 +780,14 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
 
     public void collectToken(ClientData clientData) {
         Point position = clientData.getPoint();
+        // lock-free check first, most collection attempts happen on empty cells
+        if (!isResourceAt(position.x, position.y)) {
+            return;
+        }
         synchronized (resourceDistribution) {
-            if (resourceDistribution.containsKey(position)) {
-                getRemovedResources().add(resourceDistribution.remove(position));
+            Resource resource = takeResource(position);
+            if (resource != null) {
+                getRemovedResources().add(resource);
                 clientData.addToken(position);
                 getEventChannel().handle(new TokenCollectedEvent(clientData.getId(), position));
             }
@@ -575,15 +796,38 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
 
     public void collectToken(Bot bot) {
         Point position = bot.getPosition();
+        if (!isResourceAt(position.x, position.y)) {
+            return;
+        }
         synchronized (resourceDistribution) {
-            if (resourceDistribution.containsKey(position)) {
-                getRemovedResources().add(resourceDistribution.remove(position));
+            Resource resource = takeResource(position);
+            if (resource != null) {
+                getRemovedResources().add(resource);
                 bot.addToken(position);
                 getEventChannel().handle(new TokenCollectedEvent(bot.getId(), position));
             }
         }
     }
 
+    /**
+     * Flags that something sent in this group's position updates has changed. A no-op on deserialized copies of the
+     * group, only the server tracks changes.
+     */
+    public void markDirty() {
+        if (dirty != null) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Returns true if anything sent in this group's position updates (member positions, tokens and sanctions, added
+     * or removed resources) has changed since the last call. Changes made while the caller builds the update are
+     * flagged again and sent on the next tick.
+     */
+    public boolean takeChanges() {
+        return dirty.getAndSet(false) || ! getAddedResources().isEmpty() || ! getRemovedResources().isEmpty();
+    }
+
     public void clearDiffLists() {
         if (removedResources != null) {
             removedResources.clear();
@@ -634,7 +878,10 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
     }
 
     public void setServerDataModel(ServerDataModel state) {
-        resourceDistribution.clear();
+        synchronized (resourceDistribution) {
+            resourceDistribution.clear();
+            resourceGrid = null;
+        }
         this.serverDataModel = state;
     }
 
@@ -670,7 +917,9 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
             ClientData clientData = clients.get(id);
             clientData.addTokens(getRoundConfiguration().ageToTokens(resource.getAge()));
             Point position = resource.getPosition();
-            getRemovedResources().add(resourceDistribution.remove(position));
+            synchronized (resourceDistribution) {
+                getRemovedResources().add(takeResource(position));
+            }
             resourceOwners.remove(id);
         }
     }
@@ -679,7 +928,12 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         if (isResourceOwner(id, resource)) {
             ClientData clientData = clients.get(id);
             clientData.addTokens(getRoundConfiguration().getTokensPerFruits());
-            getResourceFromDistribution(resource).setAge(getRoundConfiguration().getMaximumResourceAge() - 1);
+            int age = getRoundConfiguration().getMaximumResourceAge() - 1;
+            getResourceFromDistribution(resource).setAge(age);
+            ResourceGrid grid = getResourceGrid();
+            if (grid != null) {
+                grid.setAge(resource.getX(), resource.getY(), age);
+            }
             resourceOwners.remove(id);
         }
     }
@@ -745,10 +999,10 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         }
         synchronized (resourceDistribution) {
             for (Resource resource : event.getRemovedTokens()) {
-                resourceDistribution.remove(resource.getPosition());
+                takeResource(resource.getPosition());
             }
             for (Resource resource : event.getAddedTokens()) {
-                resourceDistribution.put(resource.getPosition(), resource);
+                putResource(resource);
             }
         }
     }
@@ -895,7 +1149,7 @@ public class GroupDataModel implements Comparable<GroupDataModel>, DataModel<Ser
         }
         // getLogger().info("tally map is: " + tallyMap);
         getLogger().info("picking first rule from " + selectedRules);
-        Collections.shuffle(selectedRules);
+        RandomStreams.shuffle(selectedRules, getRandom(RandomStreams.GROUP));
         return tallyMap;
     }
 
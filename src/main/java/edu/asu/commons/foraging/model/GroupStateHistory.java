@@ -0,0 +1,105 @@
+package edu.asu.commons.foraging.model;
+
+import java.awt.Point;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
+import edu.asu.commons.foraging.event.ResourceDiff;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Server-side version history of a group's state. Every frame the server publishes for the group gets the next
+ * version number and the most recent frames are retained so that a client that has acknowledged a recent version
+ * can be caught up with the net token changes since then instead of a snapshot of the whole board.
+ *
+ * Versions keep increasing across rounds; clear() only drops the retained frames.
+ */
+public class GroupStateHistory {
+
+    private final int capacity;
+    private final ArrayDeque<GroupUpdateFrame> frames;
+    private long version;
+
+    public GroupStateHistory(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.frames = new ArrayDeque<>(this.capacity);
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Creates the frame for the next version of the group's state and retains it, dropping the oldest frame if the
+     * history is full.
+     */
+    public synchronized GroupUpdateFrame publish(Resource[] addedResources, Resource[] removedResources,
+            Map<Identifier, Integer> clientTokens, Map<Identifier, Point> clientPositions) {
+        GroupUpdateFrame frame = new GroupUpdateFrame(++version, addedResources, removedResources, clientTokens, clientPositions);
+        if (frames.size() == capacity) {
+            frames.removeFirst();
+        }
+        frames.addLast(frame);
+        return frame;
+    }
+
+    public synchronized void clear() {
+        frames.clear();
+    }
+
+    /**
+     * Returns true if the retained frames cover every version after the given one.
+     */
+    public synchronized boolean canCatchUp(long fromVersion) {
+        if (fromVersion < 0 || fromVersion > version) {
+            return false;
+        }
+        return fromVersion == version || (! frames.isEmpty() && frames.getFirst().getVersion() <= fromVersion + 1);
+    }
+
+    /**
+     * Creates the synchronization event for a client that has applied the given version: a catch-up delta if the
+     * history goes back that far, a snapshot of the group's current state otherwise.
+     */
+    public synchronized SynchronizeGroupStateEvent createSynchronizeEvent(Identifier id, GroupDataModel group,
+            long acknowledgedVersion, long timeLeft) {
+        Map<Identifier, Integer> clientTokens = group.getClientTokens();
+        Map<Identifier, Point> clientPositions = group.getClientPositions();
+        // read after the positions like ClientPositionUpdateEvent, the server applies a move before its sequence
+        ClientData data = group.getClientData(id);
+        long lastInputSequence = (data == null) ? 0 : data.getLastInputSequence();
+        if (canCatchUp(acknowledgedVersion)) {
+            // net change per cell since the acknowledged version, a later frame overrides earlier ones
+            Map<Point, Resource> added = new HashMap<>();
+            Map<Point, Resource> removed = new HashMap<>();
+            for (GroupUpdateFrame frame : frames) {
+                if (frame.getVersion() <= acknowledgedVersion) {
+                    continue;
+                }
+                frame.getRemovedResourceDiff().forEach((x, y, age) -> {
+                    Point position = new Point(x, y);
+                    added.remove(position);
+                    removed.put(position, new Resource(position, age));
+                });
+                frame.getAddedResourceDiff().forEach((x, y, age) -> {
+                    Point position = new Point(x, y);
+                    removed.remove(position);
+                    added.put(position, new Resource(position, age));
+                });
+            }
+            return new SynchronizeGroupStateEvent(id, version, acknowledgedVersion,
+                    ResourceDiff.of(added.values()), ResourceDiff.of(removed.values()), clientTokens, clientPositions, timeLeft, lastInputSequence);
+        }
+        return new SynchronizeGroupStateEvent(id, version, SynchronizeGroupStateEvent.SNAPSHOT,
+                ResourceDiff.of(group.getResourceDistribution().values()), ResourceDiff.EMPTY, clientTokens, clientPositions, timeLeft, lastInputSequence);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("GroupStateHistory [version %d, %d frames retained]", version, frames.size());
+    }
+
+}
@@ -0,0 +1,14 @@
+package edu.asu.commons.foraging.model;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A ResourceGenerator whose regrowth step can be computed for several groups concurrently.
+ * 
+ * regrow() only reads the given group's resource distribution and must not modify it or emit any events; the
+ * ResourceDispenser adds the returned resources to each group afterwards, in group order, on the calling thread.
+ */
+public interface ParallelResourceGenerator extends ResourceGenerator {
+    public Set<Resource> regrow(GroupDataModel group, SplittableRandom random);
+}
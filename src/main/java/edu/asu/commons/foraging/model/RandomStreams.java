@@ -0,0 +1,72 @@
+package edu.asu.commons.foraging.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent SplittableRandom streams for each stochastic component of a round (resource generation,
+ * bots, group assignment, etc.) from a single seed.
+ *
+ * Each stream's seed is a function of the round seed, the component name and the given ids (e.g., group id and bot
+ * number) only, so a stream doesn't depend on the order in which streams are created or on how many numbers other
+ * streams have consumed. Given the same seed, a round can be replayed bit-for-bit and groups can draw from their
+ * own streams concurrently without contention.
+ */
+public class RandomStreams {
+
+    public final static String RESOURCE_GENERATOR = "resource-generator";
+    public final static String BOT = "bot";
+    public final static String GROUP = "group";
+    public final static String SERVER = "server";
+    public final static String PARTICIPANTS = "participants";
+
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns RandomStreams with an arbitrary seed, i.e., not reproducible unless the seed is logged.
+     */
+    public static RandomStreams createUnseeded() {
+        return new RandomStreams(new SplittableRandom().nextLong());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SplittableRandom create(String component, long... ids) {
+        long streamSeed = mix(seed, component.hashCode());
+        for (long id : ids) {
+            streamSeed = mix(streamSeed, id);
+        }
+        return new SplittableRandom(streamSeed);
+    }
+
+    private static long mix(long seed, long salt) {
+        // SplittableRandom's own mixing function decorrelates nearby seeds
+        return new SplittableRandom(seed + (salt + 1) * GOLDEN_GAMMA).nextLong();
+    }
+
+    /**
+     * Fisher-Yates shuffle equivalent to Collections.shuffle(list, random) for SplittableRandom.
+     */
+    public static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T element = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, element);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RandomStreams [seed=" + seed + "]";
+    }
+
+}
@@ -2,13 +2,17 @@ package edu.asu.commons.foraging.model;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Logger;
 
 import edu.asu.commons.foraging.conf.RoundConfiguration;
@@ -44,14 +48,17 @@ public class ResourceDispenser {
             resourceGeneratorTypeMap.put(name, this);
         }
 
+        /**
+         * Returns the built-in Type with the given name (e.g., top-bottom-patchy) or enum constant name (e.g.,
+         * TOP_BOTTOM_PATCHY), or null if there is none.
+         */
         public static Type find(final String name) {
             Type type = resourceGeneratorTypeMap.get(name);
             if (type == null) {
-                type = valueOf(name);
-                if (type == null) {
-                    // FIXME: default value is density-dependent
-                    logger.warning("Couldn't find resource generator by name, returning default: " + name);
-                    type = NEIGHBORHOOD_DENSITY_DEPENDENT;
+                try {
+                    type = valueOf(name);
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    return null;
                 }
             }
             return type;
@@ -62,11 +69,16 @@ public class ResourceDispenser {
         }
     }
 
+    // Moore neighborhood offsets
+    private final static int[] MOORE_X_OFFSETS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    private final static int[] MOORE_Y_OFFSETS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+
     private final ServerDataModel serverDataModel;
 
-    private final Random random = new Random();
-    // FIXME: turn these into factory driven based on configuration parameter.
+    private boolean parallelRegrowth;
+    private ForkJoinPool regrowthPool;
     private ResourceGenerator currentResourceGenerator;
+    private final ResourceGeneratorRegistry registry;
 
     private final DensityDependentResourceGenerator densityDependentGenerator =
             new DensityDependentResourceGenerator();
@@ -80,6 +92,10 @@ public class ResourceDispenser {
 
     public ResourceDispenser(final ServerDataModel serverDataModel) {
         this.serverDataModel = serverDataModel;
+        this.registry = new ResourceGeneratorRegistry(serverDataModel);
+        for (Type type : Type.values()) {
+            registry.register(type.toString(), getResourceGenerator(type));
+        }
     }
 
     public void resetTokenDistribution(ResetTokenDistributionRequest event) {
@@ -97,15 +113,36 @@ public class ResourceDispenser {
     }
 
     public void initialize(RoundConfiguration roundConfiguration) {
-        ResourceDispenser.Type resourceGeneratorType = ResourceDispenser.Type.find(roundConfiguration.getResourceGeneratorType());
-        currentResourceGenerator = getResourceGenerator(resourceGeneratorType);
+        parallelRegrowth = roundConfiguration.isParallelRegrowthEnabled();
+        currentResourceGenerator = getResourceGenerator(roundConfiguration.getResourceGeneratorType());
         currentResourceGenerator.initialize(roundConfiguration);
     }
 
+    /**
+     * Returns the built-in or pluggable ResourceGenerator with the given name, see ResourceGeneratorRegistry,
+     * falling back to neighborhood density dependent regrowth if it can't be found.
+     */
+    public ResourceGenerator getResourceGenerator(String name) {
+        Type type = Type.find(name);
+        if (type != null) {
+            return getResourceGenerator(type);
+        }
+        ResourceGenerator generator = registry.find(name);
+        if (generator == null) {
+            logger.warning("Couldn't find resource generator by name, returning default: " + name);
+            return neighborhoodDensityDependentGenerator;
+        }
+        return generator;
+    }
+
+    public ResourceGeneratorRegistry getRegistry() {
+        return registry;
+    }
+
     protected ResourceGenerator getResourceGenerator(Type resourceGeneratorType) {
         switch (resourceGeneratorType) {
-//            case DENSITY_DEPENDENT:
-//                return densityDependentGenerator;
+            case DENSITY_DEPENDENT:
+                return densityDependentGenerator;
             case NEIGHBORHOOD_DENSITY_DEPENDENT:
                 return neighborhoodDensityDependentGenerator;
             case TOP_BOTTOM_PATCHY:
@@ -130,13 +167,67 @@ public class ResourceDispenser {
     }
 
     public Map<GroupDataModel, Set<Resource>> generateResources(ResourceGenerator generator) {
-        Map<GroupDataModel, Set<Resource>> map = new HashMap<>();
-        for (GroupDataModel group : serverDataModel.getGroups()) {
+        List<GroupDataModel> groups = serverDataModel.getOrderedGroups();
+        if (parallelRegrowth && groups.size() > 1 && generator instanceof ParallelResourceGenerator) {
+            return generateResourcesInParallel((ParallelResourceGenerator) generator, groups);
+        }
+        Map<GroupDataModel, Set<Resource>> map = new LinkedHashMap<>();
+        for (GroupDataModel group : groups) {
             map.put(group, generator.generate(group));
         }
         return map;
     }
 
+    /**
+     * Computes regrowth for every group concurrently and then adds the new resources group by group on the calling
+     * thread, so ResourcesAddedEvents reach the EventChannel (and the persister) in the same order as a sequential
+     * pass. Each group uses its own random stream, so the results are the same as generateResources() would
+     * produce sequentially.
+     */
+    private Map<GroupDataModel, Set<Resource>> generateResourcesInParallel(final ParallelResourceGenerator generator,
+            List<GroupDataModel> groups) {
+        ForkJoinPool pool = getRegrowthPool();
+        List<ForkJoinTask<Set<Resource>>> tasks = new ArrayList<>(groups.size());
+        for (final GroupDataModel group : groups) {
+            final SplittableRandom groupRandom = getRandom(group);
+            tasks.add(pool.submit(() -> generator.regrow(group, groupRandom)));
+        }
+        Map<GroupDataModel, Set<Resource>> map = new LinkedHashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            GroupDataModel group = groups.get(i);
+            Set<Resource> resources = tasks.get(i).join();
+            serverDataModel.addResources(group, resources);
+            map.put(group, resources);
+        }
+        return map;
+    }
+
+    private synchronized ForkJoinPool getRegrowthPool() {
+        if (regrowthPool == null) {
+            int parallelism = serverDataModel.getRoundConfiguration().getParentConfiguration().getRegrowthParallelism();
+            logger.info("creating regrowth pool with parallelism " + parallelism);
+            regrowthPool = new ForkJoinPool(parallelism);
+        }
+        return regrowthPool;
+    }
+
+    /**
+     * Returns the random stream used to generate resources for the given group. Each group has its own stream so
+     * that regrowth for a group doesn't depend on how many random numbers other groups consumed, regardless of
+     * whether groups are regrown in parallel or not.
+     */
+    public SplittableRandom getRandom(GroupDataModel group) {
+        return group.getRandom(RandomStreams.RESOURCE_GENERATOR);
+    }
+
+    public boolean isParallelRegrowth() {
+        return parallelRegrowth;
+    }
+
+    public void setParallelRegrowth(boolean parallelRegrowth) {
+        this.parallelRegrowth = parallelRegrowth;
+    }
+
     public ResourceGenerator getCurrentResourceGenerator() {
         return currentResourceGenerator;
     }
@@ -144,6 +235,13 @@ public class ResourceDispenser {
     public class MobileResourceGenerator extends ResourceGenerator.Base {
         private double tokenMovementProbability;
         private double tokenBirthProbability;
+        // scratch space reused across groups and ticks, resized when the board dimensions change.
+        private int[] permutation = new int[0];
+        private int[] moveSources = new int[0];
+        private int[] moveTargets = new int[0];
+        private long[] working = new long[0];
+        private long[] born = new long[0];
+        private final int[] candidates = new int[MOORE_X_OFFSETS.length];
 
         public void initialize(RoundConfiguration roundConfiguration) {
             this.tokenMovementProbability = roundConfiguration.getTokenMovementProbability();
@@ -155,85 +253,136 @@ public class ResourceDispenser {
         }
 
         /**
-         * Moves all resources one-at-a-time. Moved resources need to be aware of the updated
-         * resource positions, otherwise resources could "disappear".
-         * XXX: could optimize by generating a list of all removed resources and then a list of all added resources
-         * and then first removing all resources and then adding new resources.
+         * Moves all resources one-at-a-time in random order and then lets every resource give birth to an offspring
+         * in a random empty neighboring cell. Moved resources need to be aware of the updated resource positions,
+         * otherwise resources could "disappear", so moves are applied to a working copy of the occupancy bitset as
+         * they happen.
+         * 
+         * The pass works in place on reusable primitive scratch arrays (a permutation of occupied cell indices,
+         * the working occupancy and the move / birth diffs) and only allocates the Points and Resources reported
+         * to the ServerDataModel.
          * 
          * @param group
          */
         public Set<Resource> generate(GroupDataModel group) {
-            // getResourcePositions() returns a new HashSet
-            // this Set will contain the most up-to-date resource positions as a working copy.
-            final Set<Point> currentResourcePositions = group.getResourcePositions();
-            final Set<Point> addedResources = new HashSet<>();
-            final Set<Point> removedResources = new HashSet<>();
-            // iterate over a copy so we can update currentResourcePositions.
-            // we need to update them one-at-a-time, otherwise a resource might move to a location that
-            // has already been moved to...
-            final List<Point> shuffledCopy = new ArrayList<>(currentResourcePositions);
-            Collections.shuffle(shuffledCopy);
-            // iterate through a new randomized copy of the points
-            for (Point currentResourcePosition : shuffledCopy) {
+            final ResourceGrid grid = group.getResourceGrid();
+            if (grid == null) {
+                return Collections.emptySet();
+            }
+            final SplittableRandom random = getRandom(group);
+            ensureCapacity(grid.getNumberOfCells());
+            // permutation holds the current index of every resource, working the current occupancy.
+            int numberOfResources = 0;
+            for (int index = grid.nextOccupied(0); index >= 0; index = grid.nextOccupied(index + 1)) {
+                permutation[numberOfResources++] = index;
+            }
+            Arrays.fill(working, 0L);
+            for (int i = 0; i < numberOfResources; i++) {
+                set(working, permutation[i]);
+            }
+            shuffle(permutation, numberOfResources, random);
+            int numberOfMoves = 0;
+            for (int i = 0; i < numberOfResources; i++) {
                 if (random.nextDouble() < tokenMovementProbability) {
                     // this token is ready to move.
-                    final List<Point> validNeighbors = getValidMooreNeighborhood(currentResourcePosition, currentResourcePositions);
-                    if (validNeighbors.isEmpty()) {
-                        // this point can't move anywhere.
+                    final int from = permutation[i];
+                    final int to = pickEmptyNeighbor(grid, from, random);
+                    if (to < 0) {
+                        // this token can't move anywhere.
                         continue;
                     }
-                    final Point newPosition = validNeighbors.get(random.nextInt(validNeighbors.size()));
-                    // either execute one move at a time or execute a bulk move.
-                    addedResources.add(newPosition);
-                    removedResources.add(currentResourcePosition);
-                    // serverDataModel.moveResource(group, currentResourcePosition, newPosition);
-                    currentResourcePositions.remove(currentResourcePosition);
-                    currentResourcePositions.add(newPosition);
-                    // newResources.add(new Resource(newPosition));
-                    // removedResources.add(currentResourcePosition);
+                    clear(working, from);
+                    set(working, to);
+                    permutation[i] = to;
+                    moveSources[numberOfMoves] = from;
+                    moveTargets[numberOfMoves] = to;
+                    numberOfMoves++;
                 }
             }
-            serverDataModel.moveResources(group, removedResources, addedResources);
-            shuffledCopy.clear();
-            shuffledCopy.addAll(currentResourcePositions);
-            Collections.shuffle(shuffledCopy);
+            if (numberOfMoves > 0) {
+                serverDataModel.moveResources(group,
+                        toPoints(grid, moveSources, numberOfMoves), toPoints(grid, moveTargets, numberOfMoves));
+            }
+            // next, generate offspring from the updated positions. Offspring don't block each other, two parents
+            // picking the same empty cell yield a single offspring.
+            Arrays.fill(born, 0L);
             Set<Resource> addedOffspring = new HashSet<>();
-            // next, generate offspring.
-            // use current resource positions.
-            for (Point currentResourcePosition : currentResourcePositions) {
+            for (int i = 0; i < numberOfResources; i++) {
                 if (random.nextDouble() < tokenBirthProbability) {
-                    final List<Point> validNeighbors = getValidMooreNeighborhood(currentResourcePosition, currentResourcePositions);
-                    if (validNeighbors.isEmpty()) {
+                    final int offspring = pickEmptyNeighbor(grid, permutation[i], random);
+                    if (offspring < 0 || isSet(born, offspring)) {
                         // cannot generate offspring anywhere, is resource-locked.
                         continue;
                     }
-                    final Point offspringPosition = validNeighbors.get(random.nextInt(validNeighbors.size()));
-                    addedOffspring.add(new Resource(offspringPosition));
+                    set(born, offspring);
+                    addedOffspring.add(new Resource(grid.x(offspring), grid.y(offspring), 0));
                 }
             }
             serverDataModel.addResources(group, addedOffspring);
             return addedOffspring;
         }
 
-        private List<Point> getValidMooreNeighborhood(Point referencePoint, Set<Point> existingPositions) {
-            List<Point> neighborhoodPoints = new ArrayList<>();
-            int currentX = referencePoint.x;
-            int currentY = referencePoint.y;
-            int endX = currentX + 2;
-            int endY = currentY + 2;
-            for (int x = currentX - 1; x < endX; x++) {
-                for (int y = currentY - 1; y < endY; y++) {
-                    Point point = new Point(x, y);
-                    // only add a point to the neighborhood set if it doesn't already have a resource.
-                    if (serverDataModel.isValidPosition(point) && !existingPositions.contains(point)) {
-                        neighborhoodPoints.add(point);
+        /**
+         * Returns the index of a uniformly chosen empty cell in the Moore neighborhood of the given cell according to
+         * the working occupancy, or -1 if every neighboring cell is occupied.
+         */
+        private int pickEmptyNeighbor(ResourceGrid grid, int index, SplittableRandom random) {
+            final int x = grid.x(index);
+            final int y = grid.y(index);
+            int numberOfCandidates = 0;
+            for (int i = 0; i < MOORE_X_OFFSETS.length; i++) {
+                int neighborX = x + MOORE_X_OFFSETS[i];
+                int neighborY = y + MOORE_Y_OFFSETS[i];
+                if (grid.isValid(neighborX, neighborY)) {
+                    int neighbor = grid.index(neighborX, neighborY);
+                    if (! isSet(working, neighbor)) {
+                        candidates[numberOfCandidates++] = neighbor;
                     }
                 }
             }
-            return neighborhoodPoints;
+            return (numberOfCandidates == 0) ? -1 : candidates[random.nextInt(numberOfCandidates)];
+        }
+
+        private void ensureCapacity(int numberOfCells) {
+            if (permutation.length != numberOfCells) {
+                permutation = new int[numberOfCells];
+                moveSources = new int[numberOfCells];
+                moveTargets = new int[numberOfCells];
+                working = new long[(numberOfCells + 63) >>> 6];
+                born = new long[working.length];
+            }
+        }
+
+        private List<Point> toPoints(ResourceGrid grid, int[] indices, int length) {
+            List<Point> points = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                points.add(grid.toPoint(indices[i]));
+            }
+            return points;
         }
     }
 
+    private static void shuffle(int[] array, int length, SplittableRandom random) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int element = array[i];
+            array[i] = array[j];
+            array[j] = element;
+        }
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= (1L << index);
+    }
+
+    private static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
     public class TopBottomPatchGenerator extends NeighborhoodDensityDependentResourceGenerator {
 
         private double topRate;
@@ -257,15 +406,13 @@ public class ResourceDispenser {
             this.topRate = topRate;
         }
 
-        public void initialize(RoundConfiguration configuration) {
+        @Override
+        protected void configure(RoundConfiguration configuration) {
+            super.configure(configuration);
             setBottomDistribution(configuration.getBottomInitialResourceDistribution());
             setBottomRate(configuration.getBottomRegrowthScalingFactor());
             setTopDistribution(configuration.getTopInitialResourceDistribution());
             setTopRate(configuration.getTopRegrowthScalingFactor());
-            for (GroupDataModel group : serverDataModel.getGroups()) {
-                Set<Resource> resources = generateInitialDistribution(group);
-                serverDataModel.addResources(group, resources);
-            }
         }
 
         /**
@@ -276,6 +423,7 @@ public class ResourceDispenser {
         public Set<Resource> generateInitialDistribution(GroupDataModel group) {
             int width = serverDataModel.getBoardWidth();
             int height = serverDataModel.getBoardHeight() / 2;
+            SplittableRandom random = getRandom(group);
             int topTokensNeeded = (int) (width * height * topDistribution);
             logger.info("number of tokens needed on top: " + topTokensNeeded);
             Set<Resource> newResources = new HashSet<Resource>();
@@ -294,41 +442,18 @@ public class ResourceDispenser {
         }
 
         @Override
-        public Set<Resource> generate(GroupDataModel group) {
-            // partition the grid into north and south halves.
-            // regenerate food for the top half.
-            int divisionPoint = serverDataModel.getBoardHeight() / 2;
-            Set<Resource> newResources = new HashSet<>();
-            for (int y = 0; y < divisionPoint; y++) {
-                for (int x = 0; x < serverDataModel.getBoardWidth(); x++) {
-                    Point currentPoint = new Point(x, y);
-                    if (!group.isResourceAt(currentPoint)) {
-                        if (random.nextDouble() < getProbabilityForCell(group, x, y, topRate)) {
-                            newResources.add(new Resource(currentPoint));
-                        }
-                    }
-                }
-            }
-            // regenerate food for the bottom half
-            for (int y = divisionPoint; y < serverDataModel.getBoardHeight(); y++) {
-                for (int x = 0; x < serverDataModel.getBoardWidth(); x++) {
-                    Point currentPoint = new Point(x, y);
-                    if (!group.isResourceAt(currentPoint)) {
-                        if (random.nextDouble() < getProbabilityForCell(group, x, y, bottomRate)) {
-                            newResources.add(new Resource(currentPoint));
-                        }
-                    }
-                }
-            }
-            // add all resources to the server
-            serverDataModel.addResources(group, newResources);
-            return newResources;
+        public double getProbabilityForCell(GroupDataModel group, int x, int y) {
+            return getProbabilityForCell(group, x, y, getRate(y));
         }
 
         @Override
-        public double getProbabilityForCell(GroupDataModel group, int x, int y) {
-            return getProbabilityForCell(group, x, y,
-                    (y < serverDataModel.getBoardHeight() / 2) ? topRate : bottomRate);
+        protected double getRate(int y) {
+            return (y < serverDataModel.getBoardHeight() / 2) ? topRate : bottomRate;
+        }
+
+        @Override
+        protected int getInitialAge() {
+            return 0;
         }
 
     }
@@ -337,9 +462,12 @@ public class ResourceDispenser {
      * Density dependent resource regeneration that is not dependent on neighboring cells, but overall state of the resource.
      * 
      * raw_regrowth = number of remaining tokens * regrowth rate
-     * if raw regrowth > 1, return raw regrowth * (number of open cells / total cells), clamped to 1
+     * if raw regrowth > 1, return raw regrowth * (number of open cells / total cells), rounded and at least 1
      * if raw regrowth is between 0 and 1 because resource distribution size is between 1 and 10, generate a uniformly distributed
      * random number that must be <= raw regrowth.
+     * 
+     * The new tokens are placed on distinct open cells chosen uniformly at random from the ResourceGrid's free cell
+     * index, in O(regrowth) rather than by shuffling the entire board.
      */
     public class DensityDependentResourceGenerator extends ResourceGenerator.Base {
         private double regrowthRate;
@@ -352,37 +480,46 @@ public class ResourceDispenser {
             }
         }
 
-        @Override
-        public Set<Resource> generate(GroupDataModel group) {
-            Set<Resource> newResources = new HashSet<>();
-            Map<Point, Resource> resourceDistribution = group.getResourceDistribution();
-            int totalNumberOfResources = resourceDistribution.size();
-            int totalNumberOfCells = serverDataModel.getBoardHeight() * serverDataModel.getBoardWidth();
+        public int getRegrowth(int totalNumberOfResources, int numberOfFreeCells, int totalNumberOfCells, SplittableRandom random) {
             double rawRegrowth = totalNumberOfResources * regrowthRate;
             int regrowth = 0;
-            logger.info("Raw regrowth: " + rawRegrowth);
             if (rawRegrowth > 1) {
-                double availableCellsRatio = totalNumberOfResources / (double) totalNumberOfCells;
+                double availableCellsRatio = numberOfFreeCells / (double) totalNumberOfCells;
                 regrowth = Math.max((int) Math.round(rawRegrowth * availableCellsRatio), 1);
             }
             else if (random.nextDouble() <= rawRegrowth) {
                 regrowth = 1;
             }
-            logger.info("Regrowth: " + regrowth);
-            if (regrowth > 0) {
-                ArrayList<Point> availableLocations = new ArrayList<>();
-                for (int i = 0; i < serverDataModel.getBoardHeight(); i++) {
-                    for (int j = 0; j < serverDataModel.getBoardWidth(); j++) {
-                        availableLocations.add(new Point(i, j));
-                    }
-                }
-                availableLocations.remove(resourceDistribution.keySet());
-                Collections.shuffle(availableLocations);
-                for (Point point : availableLocations.subList(0, regrowth)) {
-                    newResources.add(new Resource(point, 1));
+            return Math.min(regrowth, numberOfFreeCells);
+        }
+
+        @Override
+        public Set<Resource> generate(GroupDataModel group) {
+            ResourceGrid grid = group.getResourceGrid();
+            if (grid == null) {
+                return Collections.emptySet();
+            }
+            SplittableRandom random = getRandom(group);
+            int numberOfFreeCells = grid.getNumberOfFreeCells();
+            int regrowth = getRegrowth(grid.size(), numberOfFreeCells, grid.getNumberOfCells(), random);
+            logger.fine("Regrowth: " + regrowth);
+            if (regrowth == 0) {
+                return Collections.emptySet();
+            }
+            // Floyd's algorithm: draws regrowth distinct positions out of the free cell index in O(regrowth)
+            Set<Integer> selectedPositions = new HashSet<>();
+            for (int j = numberOfFreeCells - regrowth; j < numberOfFreeCells; j++) {
+                int position = random.nextInt(j + 1);
+                if (! selectedPositions.add(position)) {
+                    selectedPositions.add(j);
                 }
-                serverDataModel.addResources(group, newResources);
             }
+            Set<Resource> newResources = new HashSet<>();
+            for (int position : selectedPositions) {
+                int index = grid.getFreeCell(position);
+                newResources.add(new Resource(grid.x(index), grid.y(index), 1));
+            }
+            serverDataModel.addResources(group, newResources);
             return newResources;
         }
 
@@ -395,11 +532,15 @@ public class ResourceDispenser {
      * 2. multiply ratio by regrowth rate configuration parameter
      * 3. if result > random.nextDouble(), add token to that grid cell.
      */
-    public class NeighborhoodDensityDependentResourceGenerator extends ResourceGenerator.Base implements StochasticGenerator {
+    public class NeighborhoodDensityDependentResourceGenerator extends ResourceGenerator.Base
+            implements StochasticGenerator, ParallelResourceGenerator {
         private double rate;
+        private boolean incremental = true;
+        // scratch space for regrowWithKernel(), groups may be regrown concurrently so every thread gets its own.
+        private final ThreadLocal<KernelScratch> kernelScratch = ThreadLocal.withInitial(KernelScratch::new);
 
         public void initialize(RoundConfiguration roundConfiguration) {
-            this.rate = roundConfiguration.getRegrowthRate();
+            configure(roundConfiguration);
             for (GroupDataModel group : serverDataModel.getGroups()) {
                 Set<Resource> resources = generateInitialDistribution(group);
                 logger.info("density dependent resource generator initialized with " + resources.size() + " resources.");
@@ -407,6 +548,15 @@ public class ResourceDispenser {
             }
         }
 
+        /**
+         * Reads this generator's parameters from the round configuration, subclasses extend this rather than
+         * initialize() so that shared settings like incremental regrowth are picked up by every variant.
+         */
+        protected void configure(RoundConfiguration roundConfiguration) {
+            this.rate = roundConfiguration.getRegrowthRate();
+            this.incremental = roundConfiguration.isIncrementalRegrowthEnabled();
+        }
+
         public double getProbabilityForCell(GroupDataModel group, int currentX, int currentY) {
             return getProbabilityForCell(group, currentX, currentY, rate);
         }
@@ -416,6 +566,10 @@ public class ResourceDispenser {
         }
 
         protected double getNeighborsTokenRatio(final GroupDataModel group, final int currentX, final int currentY) {
+            ResourceGrid grid = group.getResourceGrid();
+            if (grid != null && grid.isValid(currentX, currentY)) {
+                return grid.countNeighbors(currentX, currentY) / (double) grid.countValidNeighbors(currentX, currentY);
+            }
             double neighborsWithTokens = 0;
             // start off at -1 to offset the off-by-one we get from adding the
             // current cell.
@@ -423,12 +577,11 @@ public class ResourceDispenser {
             // use the Moore neighborhood (all 8 cells surrounding the empty cell).
             for (int x = currentX - 1; x < currentX + 2; x++) {
                 for (int y = currentY - 1; y < currentY + 2; y++) {
-                    Point neighbor = new Point(x, y);
                     // FIXME: if we ever decide to have Group-specific boundaries/territorial
                     // sizes, then we will need to change this.
-                    if (serverDataModel.isValidPosition(neighbor)) {
+                    if (serverDataModel.isValidPosition(x, y)) {
                         maxNeighbors++;
-                        if (group.isResourceAt(neighbor)) {
+                        if (group.isResourceAt(x, y)) {
                             neighborsWithTokens++;
                         }
                     }
@@ -439,29 +592,126 @@ public class ResourceDispenser {
             return neighborsWithTokens / maxNeighbors;
         }
 
-        // FIXME: can make this algorithm more efficient. Instead of scanning
-        // across the entire grid, look at existing set of Food points and check
-        // their neighbor probabilities
+        protected double getRate(int y) {
+            return rate;
+        }
+
+        protected int getInitialAge() {
+            // FIXME: should initial age be parameterizable?
+            return 1;
+        }
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        /**
+         * Full board regrowth over primitive arrays: neighbor counts for the whole board come from a single box sum
+         * over the occupancy grid, the probability field is filled in row by row (the rate only varies by row, e.g.,
+         * top and bottom halves for patchy treatments) and births are then sampled in one batch. Cells are sampled
+         * in the same order and with the same probabilities as regrowOnFrontier(), so both consume the random
+         * stream identically.
+         */
+        protected Set<Resource> regrowWithKernel(ResourceGrid grid, SplittableRandom random) {
+            final int width = grid.getWidth();
+            final int height = grid.getHeight();
+            final int numberOfCells = grid.getNumberOfCells();
+            final KernelScratch scratch = kernelScratch.get();
+            scratch.ensureCapacity(numberOfCells);
+            final int[] neighbors = grid.computeNeighborCounts(scratch.rowSums, scratch.neighbors);
+            // cells that can't regrow (occupied or without occupied neighbors) are marked with a negative probability
+            final double[] probabilities = scratch.probabilities;
+            for (int y = 0; y < height; y++) {
+                double rowRate = getRate(y);
+                int validRows = (y > 0 ? 1 : 0) + 1 + (y + 1 < height ? 1 : 0);
+                int rowStart = y * width;
+                for (int x = 0; x < width; x++) {
+                    int index = rowStart + x;
+                    if (neighbors[index] > 0 && ! grid.contains(index)) {
+                        int validColumns = (x > 0 ? 1 : 0) + 1 + (x + 1 < width ? 1 : 0);
+                        probabilities[index] = rowRate * neighbors[index] / (validColumns * validRows - 1);
+                    }
+                    else {
+                        probabilities[index] = -1;
+                    }
+                }
+            }
+            Set<Resource> newResources = new HashSet<>();
+            int initialAge = getInitialAge();
+            for (int index = 0; index < numberOfCells; index++) {
+                if (probabilities[index] >= 0 && random.nextDouble() < probabilities[index]) {
+                    newResources.add(new Resource(grid.x(index), grid.y(index), initialAge));
+                }
+            }
+            return newResources;
+        }
+
+        /**
+         * Only empty cells with at least one occupied neighbor have a non-zero regrowth probability, so it
+         * suffices to visit the frontier maintained by the ResourceGrid. New resources are collected first and
+         * added afterwards so that regrowth in this pass doesn't feed back into its own probabilities.
+         */
+        protected Set<Resource> regrowOnFrontier(ResourceGrid grid, SplittableRandom random) {
+            Set<Resource> newResources = new HashSet<>();
+            int initialAge = getInitialAge();
+            for (int index = grid.nextFrontier(0); index >= 0; index = grid.nextFrontier(index + 1)) {
+                int x = grid.x(index);
+                int y = grid.y(index);
+                double probability = getRate(y) * grid.countNeighbors(index) / grid.countValidNeighbors(x, y);
+                if (random.nextDouble() < probability) {
+                    newResources.add(new Resource(x, y, initialAge));
+                }
+            }
+            return newResources;
+        }
+
         public Set<Resource> generate(GroupDataModel group) {
-            // FIXME: extremely important - add to a scratch space first and then copy over all at once to avoid copy problem.
+            Set<Resource> newResources = regrow(group, getRandom(group));
+            serverDataModel.addResources(group, newResources);
+            return newResources;
+        }
+
+        public Set<Resource> regrow(GroupDataModel group, SplittableRandom random) {
+            ResourceGrid grid = group.getResourceGrid();
+            if (grid != null) {
+                return incremental ? regrowOnFrontier(grid, random) : regrowWithKernel(grid, random);
+            }
             Set<Resource> newResources = new HashSet<>();
             for (int y = 0; y < serverDataModel.getBoardHeight(); y++) {
                 for (int x = 0; x < serverDataModel.getBoardWidth(); x++) {
-                    Point currentPoint = new Point(x, y);
-                    if (! group.isResourceAt(currentPoint)) {
-                        random.doubles();
+                    if (! group.isResourceAt(x, y)) {
                         if (random.nextDouble() < getProbabilityForCell(group, x, y)) {
-                            // FIXME: should initial age be parameterizable?
-                            newResources.add(new Resource(currentPoint, 1));
+                            newResources.add(new Resource(x, y, getInitialAge()));
                         }
                     }
                 }
             }
-            serverDataModel.addResources(group, newResources);
             return newResources;
         }
     }
 
+    /**
+     * Per-thread arrays for NeighborhoodDensityDependentResourceGenerator.regrowWithKernel(), resized when the board
+     * dimensions change.
+     */
+    private static class KernelScratch {
+        private int[] rowSums = new int[0];
+        private int[] neighbors = new int[0];
+        private double[] probabilities = new double[0];
+
+        private void ensureCapacity(int numberOfCells) {
+            if (neighbors.length != numberOfCells) {
+                rowSums = new int[numberOfCells];
+                neighbors = new int[numberOfCells];
+                probabilities = new double[numberOfCells];
+            }
+        }
+    }
+
     public StochasticGenerator getDensityDependentGenerator() {
         return neighborhoodDensityDependentGenerator;
     }
@@ -2,8 +2,8 @@ package edu.asu.commons.foraging.model;
 
 import java.awt.Point;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import edu.asu.commons.foraging.conf.RoundConfiguration;
 
@@ -21,8 +21,15 @@ public interface ResourceGenerator {
     public Set<Resource> generate(GroupDataModel group);
     
     public static abstract class Base implements ResourceGenerator {
-        private final Random random = new Random();
+        /**
+         * Returns the group's resource generator random stream, shared by the initial distribution and regrowth.
+         */
+        protected SplittableRandom getRandom(GroupDataModel group) {
+            return group.getRandom(RandomStreams.RESOURCE_GENERATOR);
+        }
+
         public Set<Resource> generateInitialDistribution(GroupDataModel group) {
+            SplittableRandom random = getRandom(group);
             RoundConfiguration configuration = group.getRoundConfiguration();
             int width = configuration.getResourceWidth();
             int height = configuration.getResourceDepth();
@@ -0,0 +1,20 @@
+package edu.asu.commons.foraging.model;
+
+/**
+ * Service provider interface for custom resource dynamics. Implementations are discovered via
+ * java.util.ServiceLoader (list them in META-INF/services/edu.asu.commons.foraging.model.ResourceGeneratorProvider)
+ * and selected by setting the round configuration's resource-generator property to the provider's name.
+ * 
+ * Generators that also implement ParallelResourceGenerator are regrown concurrently when parallel-regrowth is
+ * enabled.
+ */
+public interface ResourceGeneratorProvider {
+
+    public String getName();
+
+    /**
+     * Returns a new ResourceGenerator that adds its resources through the given ServerDataModel.
+     */
+    public ResourceGenerator create(ServerDataModel serverDataModel);
+
+}
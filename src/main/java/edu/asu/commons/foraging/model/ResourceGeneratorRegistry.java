@@ -0,0 +1,94 @@
+package edu.asu.commons.foraging.model;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the resource-generator round configuration property to a ResourceGenerator instance. Names are looked up
+ * in the following order:
+ * <ol>
+ * <li>generators registered via register(), e.g., the ResourceDispenser's built-in types</li>
+ * <li>ResourceGeneratorProviders available via java.util.ServiceLoader, by provider name</li>
+ * <li>fully qualified class names of a ResourceGeneratorProvider or of a ResourceGenerator with either a
+ * ServerDataModel or a no-arg constructor</li>
+ * </ol>
+ * Generators are created once per registry and cached by name, so they are reused across rounds.
+ */
+public class ResourceGeneratorRegistry {
+
+    private final static Logger logger = Logger.getLogger(ResourceGeneratorRegistry.class.getName());
+
+    private final ServerDataModel serverDataModel;
+    private final Map<String, ResourceGenerator> generators = new HashMap<>();
+
+    public ResourceGeneratorRegistry(ServerDataModel serverDataModel) {
+        this.serverDataModel = serverDataModel;
+    }
+
+    public synchronized void register(String name, ResourceGenerator generator) {
+        generators.put(name, generator);
+    }
+
+    public synchronized boolean contains(String name) {
+        return generators.containsKey(name);
+    }
+
+    /**
+     * Returns the ResourceGenerator for the given name or null if none could be found or created.
+     */
+    public synchronized ResourceGenerator find(String name) {
+        if (name == null) {
+            return null;
+        }
+        name = name.trim();
+        ResourceGenerator generator = generators.get(name);
+        if (generator == null) {
+            generator = createFromServiceLoader(name);
+            if (generator == null) {
+                generator = createFromClassName(name);
+            }
+            if (generator != null) {
+                logger.info("registering resource generator " + generator.getClass().getName() + " as " + name);
+                generators.put(name, generator);
+            }
+        }
+        return generator;
+    }
+
+    private ResourceGenerator createFromServiceLoader(String name) {
+        for (ResourceGeneratorProvider provider : ServiceLoader.load(ResourceGeneratorProvider.class)) {
+            if (name.equals(provider.getName())) {
+                return provider.create(serverDataModel);
+            }
+        }
+        return null;
+    }
+
+    private ResourceGenerator createFromClassName(String className) {
+        try {
+            Class<?> generatorClass = Class.forName(className);
+            if (ResourceGeneratorProvider.class.isAssignableFrom(generatorClass)) {
+                ResourceGeneratorProvider provider = (ResourceGeneratorProvider) generatorClass.getDeclaredConstructor().newInstance();
+                return provider.create(serverDataModel);
+            }
+            if (ResourceGenerator.class.isAssignableFrom(generatorClass)) {
+                try {
+                    Constructor<?> constructor = generatorClass.getConstructor(ServerDataModel.class);
+                    return (ResourceGenerator) constructor.newInstance(serverDataModel);
+                } catch (NoSuchMethodException e) {
+                    return (ResourceGenerator) generatorClass.getDeclaredConstructor().newInstance();
+                }
+            }
+            logger.warning(className + " is neither a ResourceGenerator nor a ResourceGeneratorProvider");
+        } catch (ClassNotFoundException e) {
+            logger.fine("no resource generator class named " + className);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.warning("Couldn't create resource generator " + className + ": " + e);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,377 @@
+package edu.asu.commons.foraging.model;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * Flat, primitive-indexed occupancy grid for a single group's resource distribution. Cell (x, y) is stored at
+ * index y * width + x; presence is tracked in a bitset and resource ages in a parallel int array so that
+ * lookups by coordinate never allocate a Point.
+ *
+ * The grid also maintains, incrementally on every add / remove, the number of occupied Moore neighbors of each cell
+ * and a frontier bitset of the empty cells with at least one occupied neighbor. Neighborhood density dependent
+ * regrowth can only happen on the frontier, so generators can iterate over it instead of scanning the whole board.
+ * Finally, it keeps an index of all free cells (a dense array plus each cell's position in it, updated by swap-remove)
+ * so that density dependent regrowth can draw k free cells in O(k).
+ *
+ * Writers are expected to synchronize externally (GroupDataModel uses its resourceDistribution lock); reads are
+ * lock-free and may observe a slightly stale view, which is acceptable for regrowth probabilities and bot
+ * targeting.
+ */
+public final class ResourceGrid {
+
+    private final int width;
+    private final int height;
+    private final long[] occupied;
+    private final int[] ages;
+    private final byte[] neighbors;
+    private final long[] frontier;
+    private final int[] freeCells;
+    private final int[] freeCellPositions;
+    private int size;
+    private int frontierSize;
+
+    public ResourceGrid(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid resource grid dimensions: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.occupied = new long[((width * height) + 63) >>> 6];
+        this.ages = new int[width * height];
+        this.neighbors = new byte[width * height];
+        this.frontier = new long[occupied.length];
+        this.freeCells = new int[width * height];
+        this.freeCellPositions = new int[width * height];
+        resetFreeCells();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumberOfCells() {
+        return width * height;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getNumberOfFreeCells() {
+        return getNumberOfCells() - size;
+    }
+
+    /**
+     * Returns the index of the nth free cell, 0 <= n < getNumberOfFreeCells(). The order of free cells is arbitrary
+     * and changes as cells are added and removed.
+     */
+    public int getFreeCell(int n) {
+        return freeCells[n];
+    }
+
+    /**
+     * Returns the number of empty cells that have at least one occupied neighbor.
+     */
+    public int getFrontierSize() {
+        return frontierSize;
+    }
+
+    public boolean isValid(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public int x(int index) {
+        return index % width;
+    }
+
+    public int y(int index) {
+        return index / width;
+    }
+
+    public boolean contains(int x, int y) {
+        return isValid(x, y) && contains(index(x, y));
+    }
+
+    public boolean contains(int index) {
+        return isSet(occupied, index);
+    }
+
+    public boolean isFrontier(int index) {
+        return isSet(frontier, index);
+    }
+
+    /**
+     * Marks the given cell as occupied with the given age.
+     *
+     * @return true if the cell was previously empty
+     */
+    public boolean add(int x, int y, int age) {
+        if (!isValid(x, y)) {
+            return false;
+        }
+        int index = index(x, y);
+        ages[index] = age;
+        if (contains(index)) {
+            return false;
+        }
+        occupied[index >>> 6] |= (1L << index);
+        // swap-remove the cell from the free cell index, the last free cell takes its place
+        int lastFreeCell = freeCells[getNumberOfFreeCells() - 1];
+        int position = freeCellPositions[index];
+        freeCells[position] = lastFreeCell;
+        freeCellPositions[lastFreeCell] = position;
+        freeCellPositions[index] = -1;
+        size++;
+        if (isFrontier(index)) {
+            clearFrontier(index);
+        }
+        updateNeighbors(x, y, 1);
+        return true;
+    }
+
+    /**
+     * Clears the given cell.
+     *
+     * @return true if the cell was previously occupied
+     */
+    public boolean remove(int x, int y) {
+        if (!isValid(x, y)) {
+            return false;
+        }
+        int index = index(x, y);
+        if (!contains(index)) {
+            return false;
+        }
+        occupied[index >>> 6] &= ~(1L << index);
+        ages[index] = 0;
+        size--;
+        int position = getNumberOfFreeCells() - 1;
+        freeCells[position] = index;
+        freeCellPositions[index] = position;
+        if (neighbors[index] > 0) {
+            setFrontier(index);
+        }
+        updateNeighbors(x, y, -1);
+        return true;
+    }
+
+    /**
+     * Adjusts the neighbor counts of the cells surrounding (x, y) by delta and keeps the frontier in sync.
+     */
+    private void updateNeighbors(int x, int y, int delta) {
+        for (int ny = Math.max(y - 1, 0); ny <= Math.min(y + 1, height - 1); ny++) {
+            for (int nx = Math.max(x - 1, 0); nx <= Math.min(x + 1, width - 1); nx++) {
+                if (nx == x && ny == y) {
+                    continue;
+                }
+                int neighbor = index(nx, ny);
+                neighbors[neighbor] += delta;
+                boolean frontierCell = neighbors[neighbor] > 0 && !contains(neighbor);
+                if (frontierCell != isFrontier(neighbor)) {
+                    if (frontierCell) {
+                        setFrontier(neighbor);
+                    }
+                    else {
+                        clearFrontier(neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getAge(int x, int y) {
+        return contains(x, y) ? ages[index(x, y)] : 0;
+    }
+
+    public void setAge(int x, int y, int age) {
+        if (contains(x, y)) {
+            ages[index(x, y)] = age;
+        }
+    }
+
+    /**
+     * Returns the number of occupied cells in the Moore neighborhood (the 8 surrounding cells) of (x, y).
+     */
+    public int countNeighbors(int x, int y) {
+        return isValid(x, y) ? neighbors[index(x, y)] : 0;
+    }
+
+    public int countNeighbors(int index) {
+        return neighbors[index];
+    }
+
+    /**
+     * Recomputes the Moore neighbor count of every cell from scratch with a separable 3x3 box sum over the occupancy
+     * bitset: a horizontal pass sums each cell with its left and right neighbors into rowSums, a vertical pass sums
+     * each rowSums entry with the ones above and below it, and the cell's own occupancy is subtracted. Both arrays
+     * must have at least getNumberOfCells() elements.
+     *
+     * @return counts
+     */
+    public int[] computeNeighborCounts(int[] rowSums, int[] counts) {
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            int left = 0;
+            int center = contains(rowStart) ? 1 : 0;
+            for (int x = 0; x < width; x++) {
+                int right = (x + 1 < width && contains(rowStart + x + 1)) ? 1 : 0;
+                rowSums[rowStart + x] = left + center + right;
+                left = center;
+                center = right;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            for (int x = 0; x < width; x++) {
+                int index = rowStart + x;
+                int sum = rowSums[index];
+                if (y > 0) {
+                    sum += rowSums[index - width];
+                }
+                if (y + 1 < height) {
+                    sum += rowSums[index + width];
+                }
+                counts[index] = contains(index) ? sum - 1 : sum;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of valid cells in the Moore neighborhood of (x, y), i.e., 8 in the interior of the board,
+     * 5 along an edge and 3 in a corner.
+     */
+    public int countValidNeighbors(int x, int y) {
+        int columns = Math.min(x + 1, width - 1) - Math.max(x - 1, 0) + 1;
+        int rows = Math.min(y + 1, height - 1) - Math.max(y - 1, 0) + 1;
+        return columns * rows - 1;
+    }
+
+    /**
+     * Returns the index of the next occupied cell at or after fromIndex, or -1 if there are none.
+     */
+    public int nextOccupied(int fromIndex) {
+        return nextSetBit(occupied, fromIndex);
+    }
+
+    /**
+     * Returns the index of the next frontier cell at or after fromIndex, or -1 if there are none.
+     */
+    public int nextFrontier(int fromIndex) {
+        return nextSetBit(frontier, fromIndex);
+    }
+
+    private int nextSetBit(long[] bits, int fromIndex) {
+        int numberOfCells = getNumberOfCells();
+        if (fromIndex >= numberOfCells) {
+            return -1;
+        }
+        int wordIndex = fromIndex >>> 6;
+        long word = bits[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < numberOfCells ? index : -1;
+            }
+            if (++wordIndex == bits.length) {
+                return -1;
+            }
+            word = bits[wordIndex];
+        }
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void setFrontier(int index) {
+        frontier[index >>> 6] |= (1L << index);
+        frontierSize++;
+    }
+
+    private void clearFrontier(int index) {
+        frontier[index >>> 6] &= ~(1L << index);
+        frontierSize--;
+    }
+
+    /**
+     * Returns the index of the occupied cell closest (by squared euclidean distance) to (x, y), or -1 if the grid
+     * is empty.
+     */
+    public int nearest(int x, int y) {
+        int nearestIndex = -1;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int index = nextOccupied(0); index >= 0; index = nextOccupied(index + 1)) {
+            long dx = x(index) - x;
+            long dy = y(index) - y;
+            long distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestIndex = index;
+            }
+        }
+        return nearestIndex;
+    }
+
+    /**
+     * Returns the index of the nth occupied cell in row-major order, or -1 if n is out of range.
+     */
+    public int nthOccupied(int n) {
+        if (n < 0 || n >= size) {
+            return -1;
+        }
+        int remaining = n;
+        for (int wordIndex = 0; wordIndex < occupied.length; wordIndex++) {
+            long word = occupied[wordIndex];
+            int bits = Long.bitCount(word);
+            if (remaining < bits) {
+                for (int i = 0; i < remaining; i++) {
+                    word &= word - 1;
+                }
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= bits;
+        }
+        return -1;
+    }
+
+    public Point toPoint(int index) {
+        return new Point(x(index), y(index));
+    }
+
+    public void clear() {
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(ages, 0);
+        Arrays.fill(neighbors, (byte) 0);
+        Arrays.fill(frontier, 0L);
+        size = 0;
+        frontierSize = 0;
+        resetFreeCells();
+    }
+
+    private void resetFreeCells() {
+        for (int index = 0; index < freeCells.length; index++) {
+            freeCells[index] = index;
+            freeCellPositions[index] = index;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResourceGrid [%dx%d, %d resources]", width, height, size);
+    }
+
+}
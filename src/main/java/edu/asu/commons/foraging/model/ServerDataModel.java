@@ -7,16 +7,19 @@ import java.io.ObjectInputStream;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import edu.asu.commons.event.Event;
@@ -28,6 +31,7 @@ import edu.asu.commons.foraging.bot.BotIdentifier;
 import edu.asu.commons.foraging.conf.RoundConfiguration;
 import edu.asu.commons.foraging.event.AddClientEvent;
 import edu.asu.commons.foraging.event.ExplicitCollectionModeRequest;
+import edu.asu.commons.foraging.event.GroupStateCheckpoint;
 import edu.asu.commons.foraging.event.HarvestFruitRequest;
 import edu.asu.commons.foraging.event.HarvestResourceRequest;
 import edu.asu.commons.foraging.event.LockResourceRequest;
@@ -36,6 +40,7 @@ import edu.asu.commons.foraging.event.RealTimeSanctionRequest;
 import edu.asu.commons.foraging.event.ResetTokenDistributionRequest;
 import edu.asu.commons.foraging.event.ResourceAddedEvent;
 import edu.asu.commons.foraging.event.ResourcesAddedEvent;
+import edu.asu.commons.foraging.event.SanctionAppliedEvent;
 import edu.asu.commons.foraging.event.TokenCollectedEvent;
 import edu.asu.commons.foraging.event.TokenMovedEvent;
 import edu.asu.commons.foraging.event.TokensMovedEvent;
@@ -57,8 +62,12 @@ public class ServerDataModel extends ForagingDataModel {
     private static final NumberFormat CURRENCY_FORMATTER = NumberFormat.getCurrencyInstance();
     
     private transient Logger logger = Logger.getLogger( getClass().getName() );
-    private transient Random random = new Random();
+    private transient SplittableRandom random = new SplittableRandom();
+    private transient RandomStreams randomStreams;
     private transient boolean dirty = false;
+    // client moves and sanctions apply and store their events under the read lock, checkpoints are taken under the
+    // write lock
+    private transient ReadWriteLock stateLock = new ReentrantReadWriteLock();
     
 	// Maps client Identifiers to the GroupDataModel that the client belongs to 
     private final Map<Identifier, GroupDataModel> clientsToGroups = new HashMap<Identifier, GroupDataModel>();
@@ -73,6 +82,26 @@ public class ServerDataModel extends ForagingDataModel {
         super(channel);
     }
 
+    /**
+     * Reseeds this round's random streams from the round configuration's random-seed, or an arbitrary (logged) seed
+     * if none is configured.
+     */
+    @Override
+    public void setRoundConfiguration(RoundConfiguration configuration) {
+        super.setRoundConfiguration(configuration);
+        Long seed = configuration.getRandomSeed();
+        randomStreams = (seed == null) ? RandomStreams.createUnseeded() : new RandomStreams(seed);
+        random = randomStreams.create(RandomStreams.SERVER);
+        logger.info("Random seed for " + configuration.getRoundIndexLabel() + ": " + randomStreams.getSeed());
+    }
+
+    public RandomStreams getRandomStreams() {
+        if (randomStreams == null) {
+            randomStreams = RandomStreams.createUnseeded();
+        }
+        return randomStreams;
+    }
+
     public boolean isDirty() {
 		return dirty;
 	}
@@ -248,8 +277,57 @@ public class ServerDataModel extends ForagingDataModel {
     }
 
     public void moveClient(Identifier id, Direction d) {
-        getGroup(id).moveClient(id, d);
-        channel.handle(new MovementEvent(id, d));
+        Lock lock = stateLock.readLock();
+        lock.lock();
+        try {
+            getGroup(id).moveClient(id, d);
+            channel.handle(new MovementEvent(id, d));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a real-time sanction's cost to the source and penalty to the target and hands the resulting
+     * SanctionAppliedEvent to the given consumer, typically to store it, under the same lock as client moves so that
+     * checkpoints include either both or neither.
+     */
+    public SanctionAppliedEvent applyRealTimeSanction(ClientData source, ClientData target,
+            Consumer<? super SanctionAppliedEvent> consumer) {
+        Lock lock = stateLock.readLock();
+        lock.lock();
+        try {
+            source.sanctionCost();
+            int subtractedTokens = target.sanctionPenalty();
+            SanctionAppliedEvent sanctionAppliedEvent = new SanctionAppliedEvent(source.getId());
+            // the sanction cost should always be set since the client should prevent any sanction requests from being emitted
+            // if the user doesn't have enough tokens to issue the request.
+            sanctionAppliedEvent.setSanctionCost(getRoundConfiguration().getSanctionCost());
+            // the sanction penalty may be in the range [1, RoundConfiguration.getSanctionPenalty()] -
+            // if target has less than the actual sanction penalty they just get their tokens reduced to 0.
+            sanctionAppliedEvent.setSanctionPenalty(subtractedTokens);
+            sanctionAppliedEvent.setTarget(target.getId());
+            consumer.accept(sanctionAppliedEvent);
+            return sanctionAppliedEvent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a checkpoint of every group and hands it to the given consumer, typically to store it, while no client
+     * move or sanction is being applied on a dispatcher thread. Moves and sanctions apply their changes and store their
+     * events under the same lock, so every event stored before the checkpoint is reflected in it and none stored after
+     * it is.
+     */
+    public void checkpoint(Consumer<? super GroupStateCheckpoint> consumer) {
+        Lock lock = stateLock.writeLock();
+        lock.lock();
+        try {
+            consumer.accept(new GroupStateCheckpoint(this));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public Point getClientPosition(Identifier id) {
@@ -402,7 +480,8 @@ public class ServerDataModel extends ForagingDataModel {
         }
         super.channel = new EventTypeChannel();
         logger = Logger.getLogger( getClass().getName() );
-        random = new Random();
+        random = new SplittableRandom();
+        stateLock = new ReentrantReadWriteLock();
     }
 
     public void unapply(PersistableEvent persistableEvent) {
@@ -500,7 +579,7 @@ public class ServerDataModel extends ForagingDataModel {
         }
         List<GroupDataModel> groups = getOrderedGroups();
         int numberOfGroups = groups.size();
-        Collections.shuffle(groups);
+        RandomStreams.shuffle(groups, getRandomStreams().create(RandomStreams.GROUP));
         Iterator<GroupDataModel> groupIterator = groups.iterator();
         int numberOfStrategies = 0;
         for (Map.Entry<Strategy, Integer> entry : imposedStrategyDistribution.entrySet()) {
@@ -531,8 +610,14 @@ public class ServerDataModel extends ForagingDataModel {
     }
 
     public synchronized void handleTokenCollectionRequest(ClientData clientData) {
-        GroupDataModel group = getGroup(clientData.getId());
-        group.collectToken(clientData);
+        Lock lock = stateLock.readLock();
+        lock.lock();
+        try {
+            GroupDataModel group = getGroup(clientData.getId());
+            group.collectToken(clientData);
+        } finally {
+            lock.unlock();
+        }
     }
 
 }
@@ -0,0 +1,200 @@
+package edu.asu.commons.foraging.server;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.asu.commons.event.Event;
+import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
+import edu.asu.commons.foraging.event.HeartbeatEvent;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Bounded per-connection outbound queues for the events the server sends every tick. The experiment thread only
+ * enqueues events; each connection's queue is drained by its own pooled sender thread that hands the events to the
+ * dispatcher, so a stalled lab machine only backs up its own queue instead of the experiment thread and everyone
+ * else's updates.
+ *
+ * A ClientPositionUpdateEvent still waiting to be sent when the next one for the same client arrives has been
+ * superseded: the two are merged into one update at the end of the queue (token diffs combined, latest positions and
+ * token counts, sanctions and collected tokens of both), so a client that falls behind catches up with a single frame
+ * instead of replaying a backlog. A pending HeartbeatEvent is simply replaced by the next one. When a queue is full
+ * anyway, its oldest event is dropped and the client is reported to the dropped update handler to be resynchronized.
+ */
+public class ClientOutbox {
+
+    private final static Logger logger = Logger.getLogger(ClientOutbox.class.getName());
+
+    private final Consumer<Event> sender;
+    private final int capacity;
+    private final Consumer<Identifier> droppedUpdateHandler;
+    private final Map<Identifier, Connection> connections = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+
+    public ClientOutbox(Consumer<Event> sender, int capacity, Consumer<Identifier> droppedUpdateHandler) {
+        this.sender = sender;
+        this.capacity = Math.max(1, capacity);
+        this.droppedUpdateHandler = droppedUpdateHandler;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "client-outbox-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the event for its recipient and returns immediately.
+     */
+    public void transmit(Event event) {
+        connections.computeIfAbsent(event.getId(), Connection::new).offer(event);
+    }
+
+    /**
+     * Discards the events still queued for a client that has disconnected.
+     */
+    public void remove(Identifier id) {
+        Connection connection = connections.remove(id);
+        if (connection != null) {
+            connection.clear();
+        }
+    }
+
+    /**
+     * Discards the events still queued for every client and waits up to the given number of milliseconds for the
+     * events already handed to the dispatcher, so that events the server sends directly afterwards, e.g., at the end
+     * of a round, aren't overtaken by a stale update. Returns false if some sender is still busy after the timeout.
+     */
+    public boolean clear(long timeoutMillis) {
+        for (Connection connection : connections.values()) {
+            connection.clear();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        boolean idle = true;
+        for (Connection connection : connections.values()) {
+            if (! connection.awaitIdle(deadline)) {
+                logger.warning("Still sending to " + connection.id + " after " + timeoutMillis + " ms");
+                idle = false;
+            }
+        }
+        return idle;
+    }
+
+    public int getQueueSize(Identifier id) {
+        Connection connection = connections.get(id);
+        return (connection == null) ? 0 : connection.size();
+    }
+
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private class Connection implements Runnable {
+        private final Identifier id;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean draining;
+        private long merged;
+        private long overflows;
+
+        Connection(Identifier id) {
+            this.id = id;
+        }
+
+        void offer(Event event) {
+            boolean dropped = false;
+            synchronized (this) {
+                if (event instanceof ClientPositionUpdateEvent) {
+                    ClientPositionUpdateEvent pending = (ClientPositionUpdateEvent) removePending(ClientPositionUpdateEvent.class);
+                    if (pending != null) {
+                        event = pending.merge((ClientPositionUpdateEvent) event);
+                        merged++;
+                        logger.fine("Merged superseded position update for " + id + ", " + merged + " so far");
+                    }
+                }
+                else if (event instanceof HeartbeatEvent) {
+                    removePending(HeartbeatEvent.class);
+                }
+                if (queue.size() >= capacity) {
+                    queue.removeFirst();
+                    dropped = true;
+                    // warn about the first overflow only, a stalled client overflows every tick
+                    logger.log((++overflows == 1) ? Level.WARNING : Level.FINE, "Outbound queue for " + id + " is full, dropping oldest event");
+                }
+                queue.addLast(event);
+                if (! draining) {
+                    draining = true;
+                    senders.execute(this);
+                }
+            }
+            if (dropped) {
+                droppedUpdateHandler.accept(id);
+            }
+        }
+
+        /**
+         * Removes and returns the queued event of the given type, there is at most one.
+         */
+        private Event removePending(Class<? extends Event> type) {
+            for (Iterator<Event> iterator = queue.iterator(); iterator.hasNext();) {
+                Event pending = iterator.next();
+                if (type.isInstance(pending)) {
+                    iterator.remove();
+                    return pending;
+                }
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        synchronized void clear() {
+            queue.clear();
+        }
+
+        synchronized boolean awaitIdle(long deadline) {
+            while (draining) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = queue.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        notifyAll();
+                        return;
+                    }
+                }
+                try {
+                    sender.accept(event);
+                } catch (RuntimeException exception) {
+                    logger.log(Level.WARNING, "Couldn't send " + event + " to " + id, exception);
+                }
+            }
+        }
+    }
+
+}
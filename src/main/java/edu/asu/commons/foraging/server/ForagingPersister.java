@@ -1,23 +1,298 @@
-package edu.asu.commons.foraging.server;
-
-import edu.asu.commons.event.EventChannel;
-import edu.asu.commons.experiment.Persister;
-import edu.asu.commons.foraging.conf.RoundConfiguration;
-import edu.asu.commons.foraging.conf.ServerConfiguration;
-
-public class ForagingPersister extends Persister<ServerConfiguration, RoundConfiguration> {
-    
-    public ForagingPersister(ServerConfiguration configuration) {
-        super(configuration);
-    }
-    
-    public ForagingPersister(EventChannel channel, ServerConfiguration configuration) {
-        super(channel, configuration);
-    }
-
-    // FIXME: path only works for unix.  Should detect OS instead and have a Windows-safe fail safe directory.
-    @Override
-    protected String getFailSafeSaveDirectory() {
-        return "/tmp/foraging-failsafe";
-    }
-}
+package edu.asu.commons.foraging.server;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.asu.commons.event.ChatRequest;
+import edu.asu.commons.event.EventChannel;
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.experiment.DataModel;
+import edu.asu.commons.experiment.Persister;
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.GroupStateCheckpoint;
+import edu.asu.commons.foraging.util.RingBuffer;
+
+/**
+ * Stores events on a dedicated writer thread. store() only offers the event to a lock-free ring buffer and returns, so
+ * the experiment and dispatcher threads never wait on the disk; the writer thread hands the events on to the base
+ * Persister and the round journal in the order they were stored. When the buffer is full the storing thread backs off
+ * until the writer catches up rather than dropping events, the number of such stalls and the buffer's high-water mark
+ * are logged with every round. initialize() and persist() wait for the writer to drain the buffer first, so every event
+ * stored before a round is saved ends up in its save file.
+ *
+ * Events are stored synchronously on the calling thread if persister-queue-capacity is 0.
+ */
+public class ForagingPersister extends Persister<ServerConfiguration, RoundConfiguration> {
+
+    private final static Logger logger = Logger.getLogger(ForagingPersister.class.getName());
+
+    private final ServerConfiguration configuration;
+
+    // streams the round's events to disk as they are stored when journal-enabled is set, see RoundJournal
+    private RoundJournal journal;
+    private PersistableEvent lastJournaledEvent;
+
+    private final Writer writer;
+
+    public ForagingPersister(ServerConfiguration configuration) {
+        super(configuration);
+        this.configuration = configuration;
+        this.writer = createWriter();
+        startSyncTimer();
+    }
+
+    public ForagingPersister(EventChannel channel, ServerConfiguration configuration) {
+        super(channel, configuration);
+        this.configuration = configuration;
+        this.writer = createWriter();
+        startSyncTimer();
+    }
+
+    private Writer createWriter() {
+        int capacity = configuration.getPersisterQueueCapacity();
+        if (capacity <= 0) {
+            return null;
+        }
+        Writer writer = new Writer(capacity);
+        writer.start();
+        return writer;
+    }
+
+    /**
+     * The writer thread syncs the journal while it is idle, without one a timer thread does.
+     */
+    private void startSyncTimer() {
+        if (writer != null || ! configuration.isJournalEnabled()) {
+            return;
+        }
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "foraging-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, configuration.getJournalSyncInterval());
+        timer.scheduleWithFixedDelay(this::syncJournal, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void initialize(RoundConfiguration roundConfiguration) {
+        flush();
+        super.initialize(roundConfiguration);
+        openJournal(roundConfiguration);
+    }
+
+    private synchronized void openJournal(RoundConfiguration roundConfiguration) {
+        closeJournal();
+        if (configuration.isJournalEnabled()) {
+            try {
+                journal = RoundJournal.create(configuration.getJournalDirectory(), roundConfiguration.getRoundIndexLabel(),
+                        configuration.getJournalSyncInterval());
+                logger.info("Journaling round events to " + journal.getFile());
+            } catch (IOException exception) {
+                logger.log(Level.SEVERE, "Couldn't create round journal, events will only be saved at the end of the round", exception);
+            }
+        }
+    }
+
+    @Override
+    public void store(PersistableEvent event) {
+        // the base Persister may store events through this method itself, those are already on the writer thread
+        if (writer == null || writer.isCurrentThread()) {
+            // checkpoints only belong in the journal
+            if (! (event instanceof GroupStateCheckpoint)) {
+                super.store(event);
+            }
+            journal(event);
+        }
+        else {
+            writer.enqueue(event);
+        }
+    }
+
+    @Override
+    public void store(ChatRequest request) {
+        if (writer == null || writer.isCurrentThread()) {
+            super.store(request);
+            journal(request);
+        }
+        else {
+            writer.enqueue(request);
+        }
+    }
+
+    /**
+     * Saves the round as usual once all events stored so far have been written, and finishes its journal.
+     */
+    @Override
+    public void persist(DataModel<ServerConfiguration, RoundConfiguration> dataModel) {
+        flush();
+        if (writer != null) {
+            logger.info("Persister queue statistics: " + writer);
+            writer.resetStatistics();
+        }
+        super.persist(dataModel);
+        closeJournal();
+    }
+
+    /**
+     * Returns true if the current round's events are being journaled, i.e., GroupStateCheckpoints are worth storing.
+     */
+    public synchronized boolean isJournaling() {
+        return journal != null;
+    }
+
+    /**
+     * Blocks until the writer thread has stored every event stored before this call.
+     */
+    public void flush() {
+        if (writer != null && ! writer.isCurrentThread()) {
+            writer.awaitDrained();
+        }
+    }
+
+    private synchronized void journal(PersistableEvent event) {
+        // the base Persister may hand a chat request on to store(PersistableEvent), only journal it once
+        if (journal == null || event == lastJournaledEvent) {
+            return;
+        }
+        lastJournaledEvent = event;
+        try {
+            journal.append(event);
+        } catch (IOException exception) {
+            logger.log(Level.SEVERE, "Couldn't journal " + event + ", disabling " + journal, exception);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Forces the journal to disk if the sync interval has passed since events were last appended to it.
+     */
+    private synchronized void syncJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.syncIfDue();
+        } catch (IOException exception) {
+            logger.log(Level.SEVERE, "Couldn't sync " + journal + ", disabling it", exception);
+            closeJournal();
+        }
+    }
+
+    private synchronized void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+            logger.info("Closed " + journal);
+        } catch (IOException exception) {
+            logger.log(Level.SEVERE, "Couldn't finish " + journal, exception);
+        } finally {
+            journal = null;
+            lastJournaledEvent = null;
+        }
+    }
+
+    private class Writer extends Thread {
+        private final RingBuffer<PersistableEvent> buffer;
+        private volatile long written;
+        private volatile boolean waiting;
+        // statistics since the last round was saved
+        private final AtomicLong stalls = new AtomicLong();
+        private final AtomicInteger highWaterMark = new AtomicInteger();
+        private volatile long writtenAtReset;
+
+        Writer(int capacity) {
+            super("foraging-persister");
+            setDaemon(true);
+            this.buffer = new RingBuffer<>(capacity);
+        }
+
+        boolean isCurrentThread() {
+            return Thread.currentThread() == this;
+        }
+
+        void enqueue(PersistableEvent event) {
+            boolean stalled = false;
+            while (! buffer.offer(event)) {
+                if (! stalled) {
+                    stalled = true;
+                    // warn about the first stall only, a writer that can't keep up stalls on every event
+                    logger.log((stalls.incrementAndGet() == 1) ? Level.WARNING : Level.FINE, "Persister queue is full, waiting for the writer thread");
+                }
+                LockSupport.unpark(this);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+            highWaterMark.accumulateAndGet(buffer.size(), Math::max);
+            if (waiting) {
+                LockSupport.unpark(this);
+            }
+        }
+
+        void awaitDrained() {
+            long target = buffer.getOffered();
+            while (written < target) {
+                LockSupport.unpark(this);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        void resetStatistics() {
+            stalls.set(0);
+            highWaterMark.set(0);
+            writtenAtReset = written;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                PersistableEvent event = buffer.poll();
+                if (event == null) {
+                    waiting = true;
+                    // check again now that producers will wake us up, then sleep until they do
+                    event = buffer.poll();
+                    if (event == null) {
+                        syncJournal();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                        waiting = false;
+                        continue;
+                    }
+                    waiting = false;
+                }
+                try {
+                    if (event instanceof ChatRequest) {
+                        store((ChatRequest) event);
+                    }
+                    else {
+                        store(event);
+                    }
+                } catch (RuntimeException exception) {
+                    logger.log(Level.SEVERE, "Couldn't store " + event, exception);
+                } finally {
+                    written++;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events, high-water mark %d of %d, %d stalls", written - writtenAtReset, highWaterMark.get(),
+                    buffer.capacity(), stalls.get());
+        }
+    }
+
+    // FIXME: path only works for unix.  Should detect OS instead and have a Windows-safe fail safe directory.
+    @Override
+    protected String getFailSafeSaveDirectory() {
+        return "/tmp/foraging-failsafe";
+    }
+}
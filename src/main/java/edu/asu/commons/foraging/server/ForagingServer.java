@@ -5,7 +5,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -13,15 +12,17 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 import edu.asu.commons.event.*;
 import edu.asu.commons.experiment.AbstractExperiment;
 import edu.asu.commons.experiment.IPersister;
-import edu.asu.commons.experiment.Persister;
 import edu.asu.commons.experiment.StateMachine;
 import edu.asu.commons.foraging.bot.BotType;
 import edu.asu.commons.foraging.conf.RoundConfiguration;
@@ -29,6 +30,7 @@ import edu.asu.commons.foraging.conf.ServerConfiguration;
 import edu.asu.commons.foraging.data.ForagingSaveFileConverter;
 import edu.asu.commons.foraging.event.AgentInfoRequest;
 import edu.asu.commons.foraging.event.BeginChatRoundRequest;
+import edu.asu.commons.foraging.event.ClientMovementBatchRequest;
 import edu.asu.commons.foraging.event.ClientMovementRequest;
 import edu.asu.commons.foraging.event.ClientPoseUpdate;
 import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
@@ -39,8 +41,11 @@ import edu.asu.commons.foraging.event.FacilitatorCensoredChatRequest;
 import edu.asu.commons.foraging.event.FacilitatorEndRoundEvent;
 import edu.asu.commons.foraging.event.FacilitatorSanctionUpdateEvent;
 import edu.asu.commons.foraging.event.FacilitatorUpdateEvent;
+import edu.asu.commons.foraging.event.GroupStateAckRequest;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
 import edu.asu.commons.foraging.event.HarvestFruitRequest;
 import edu.asu.commons.foraging.event.HarvestResourceRequest;
+import edu.asu.commons.foraging.event.HeartbeatEvent;
 import edu.asu.commons.foraging.event.ImposeStrategyEvent;
 import edu.asu.commons.foraging.event.LockResourceEvent;
 import edu.asu.commons.foraging.event.LockResourceRequest;
@@ -60,6 +65,7 @@ import edu.asu.commons.foraging.event.SinglePlayerClientUpdateEvent;
 import edu.asu.commons.foraging.event.SinglePlayerUpdateRequest;
 import edu.asu.commons.foraging.event.SurveyIdSubmissionRequest;
 import edu.asu.commons.foraging.event.SynchronizeClientEvent;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
 import edu.asu.commons.foraging.event.TrustGameResultsFacilitatorEvent;
 import edu.asu.commons.foraging.event.TrustGameSubmissionEvent;
 import edu.asu.commons.foraging.event.TrustGameSubmissionRequest;
@@ -68,6 +74,8 @@ import edu.asu.commons.foraging.model.ClientData;
 import edu.asu.commons.foraging.model.Direction;
 import edu.asu.commons.foraging.model.EnforcementMechanism;
 import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.GroupStateHistory;
+import edu.asu.commons.foraging.model.RandomStreams;
 import edu.asu.commons.foraging.model.Resource;
 import edu.asu.commons.foraging.model.ResourceDispenser;
 import edu.asu.commons.foraging.model.ServerDataModel;
@@ -91,9 +99,15 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
     private final Map<Identifier, ClientData> clients = new HashMap<>();
     private final HashSet<Identifier> synchronizedClients = new HashSet<>();
+    // latest group state version each client has applied
+    private final Map<Identifier, Long> acknowledgedStateVersions = new ConcurrentHashMap<>();
+    // clients that had events dropped from a full outbound queue and need a catch-up synchronization
+    private final Set<Identifier> clientsToResynchronize = ConcurrentHashMap.newKeySet();
+    private final ClientOutbox outbox;
 
-    public final static int SYNCHRONIZATION_FREQUENCY = 60;
     public final static int SERVER_SLEEP_INTERVAL = 75;
+    // how long the end of a round waits for updates that are already being sent to a client
+    private final static long OUTBOX_CLEAR_TIMEOUT = 1000;
 
     // FIXME: investigate using java.util.concurrent constructs instead, e.g., CountDownLatch / CyclicBarrier
     private final Object roundSignal = new Object();
@@ -103,7 +117,7 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
     private StateMachine stateMachine = new ForagingStateMachine();
 
-    private Persister<ServerConfiguration, RoundConfiguration> persister;
+    private ForagingPersister persister;
 
     private volatile int numberOfSubmittedQuizzes;
     private volatile int numberOfCompletedSanctions;
@@ -126,6 +140,7 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
     public ForagingServer(ServerConfiguration configuration) {
         super(configuration);
         persister = new ForagingPersister(getEventChannel(), configuration);
+        outbox = new ClientOutbox(this::transmit, configuration.getOutboundQueueCapacity(), clientsToResynchronize::add);
     }
 
     @Override
@@ -193,9 +208,23 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
         private ServerDataModel serverDataModel;
         private ResourceDispenser resourceDispenser;
         private ServerState serverState;
+        // drives full client synchronization, counted in seconds
         private final Duration secondTick = Duration.create(1000L);
-        // bots tick every 100 ms
-        private final Duration botTick = Duration.create(100L);
+        // tick rate, cadences and stage budgets are read from the round configuration in startRound()
+        private Duration botTick;
+        private Duration regrowthTick;
+        // writes a GroupStateCheckpoint to the round journal, null if checkpoints are disabled
+        private Duration checkpointTick;
+        // paces processRound() at a fixed rate while a round is in progress
+        private TickScheduler tickScheduler;
+        private TickBudget tickBudget;
+        private InterestManager interestManager;
+        private int synchronizationFrequency;
+        // clients in idle groups only get a heartbeat every heartbeatInterval ms
+        private int heartbeatInterval;
+        private final Map<GroupDataModel, Long> lastGroupUpdates = new HashMap<>();
+        // number of bot ticks per second, bots' action counters are reset once a second
+        private int botTicksPerSecond;
         private volatile boolean groupsInitialized;
 
         /**
@@ -258,6 +287,7 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                         }
                         clients.remove(id);
                         serverDataModel.removeClient(id);
+                        outbox.remove(id);
                     }
                 }
             });
@@ -341,6 +371,11 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                     serverDataModel.getClientData(request.getId()).setPosition(data.getPosition());
                 }
             });
+            addEventProcessor(new EventTypeProcessor<GroupStateAckRequest>(GroupStateAckRequest.class) {
+                public void handle(GroupStateAckRequest request) {
+                    acknowledgedStateVersions.merge(request.getId(), request.getVersion(), Math::max);
+                }
+            });
             addEventProcessor(new EventTypeProcessor<ClientMovementRequest>(ClientMovementRequest.class) {
                 public void handle(ClientMovementRequest event) {
                     if (serverState == ServerState.IN_BETWEEN_ROUNDS)
@@ -350,6 +385,28 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                     serverDataModel.moveClient(id, direction);
                 }
             });
+            addEventProcessor(new EventTypeProcessor<ClientMovementBatchRequest>(ClientMovementBatchRequest.class) {
+                public void handle(ClientMovementBatchRequest request) {
+                    if (serverState == ServerState.IN_BETWEEN_ROUNDS)
+                        return;
+                    Identifier id = request.getId();
+                    ClientData data = clients.get(id);
+                    if (data == null) {
+                        return;
+                    }
+                    long sequence = request.getFirstSequence();
+                    for (Direction direction : request.getDirections()) {
+                        // skip moves that were already applied from a resent or overlapping batch
+                        if (sequence > data.getLastInputSequence()) {
+                            if (direction != null) {
+                                serverDataModel.moveClient(id, direction);
+                            }
+                            data.setLastInputSequence(sequence);
+                        }
+                        sequence++;
+                    }
+                }
+            });
 
             addEventProcessor(new EventTypeProcessor<ExplicitCollectionModeRequest>(ExplicitCollectionModeRequest.class) {
                 public void handleInExperimentThread(ExplicitCollectionModeRequest event) {
@@ -503,8 +560,8 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                         // monitors don't get any sanction costs.
                         targetClient.sanctionPenalty();
                         // add sanction request to the target client so they can figure out who just sanctioned them
-                        sourceClient.getLatestSanctions().add(request);
-                        targetClient.getLatestSanctions().add(request);
+                        sourceClient.addLatestSanction(request);
+                        targetClient.addLatestSanction(request);
                         transmit(new ClientMessageEvent(sourceClient.getId(),
                                 String.format("Subtracting %d tokens from # %d at the cost of 0 to yourself.",
                                         getCurrentRoundConfiguration().getSanctionPenalty(),
@@ -550,22 +607,13 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                 return;
             }
 
-            sourceClient.sanctionCost();
-            int sanctionCost = getCurrentRoundConfiguration().getSanctionCost();
-            int subtractedTokens = targetClient.sanctionPenalty();
-            // generate sanction applied event
-            SanctionAppliedEvent sanctionAppliedEvent = new SanctionAppliedEvent(sourceClient.getId());
-            // the sanction cost should always be set since the client should prevent any sanction requests from being emitted
-            // if the user doesn't have enough tokens to issue the request.
-            sanctionAppliedEvent.setSanctionCost(sanctionCost);
-            // the sanction penalty may be in the range [1, RoundConfiguration.getSanctionPenalty()] -
-            // if target has less than the actual sanction penalty they just get their tokens reduced to 0.
-            sanctionAppliedEvent.setSanctionPenalty(subtractedTokens);
-            sanctionAppliedEvent.setTarget(targetClient.getId());
-            persister.store(sanctionAppliedEvent);
+            // apply the sanction and store its event atomically with respect to checkpoints
+            SanctionAppliedEvent sanctionAppliedEvent = serverDataModel.applyRealTimeSanction(sourceClient, targetClient, persister::store);
+            int sanctionCost = sanctionAppliedEvent.getSanctionCost();
+            int subtractedTokens = sanctionAppliedEvent.getSanctionPenalty();
             // add sanction request to the target client so they can figure out who just sanctioned them
-            sourceClient.getLatestSanctions().add(request);
-            targetClient.getLatestSanctions().add(request);
+            sourceClient.addLatestSanction(request);
+            targetClient.addLatestSanction(request);
             getLogger().info("target client " + targetClient.getId() + " has sanctions: " + targetClient.getLatestSanctions());
             transmit(new ClientMessageEvent(sourceClient.getId(),
                     String.format("Subtracting %d tokens from # %d at the cost of %d to yourself.",
@@ -730,7 +778,8 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
             List<TrustGameResult> allTrustGameResults = new ArrayList<TrustGameResult>();
             for (GroupDataModel group : serverDataModel.getGroups()) {
                 LinkedList<ClientData> clientList = new LinkedList<ClientData>(group.getClientDataMap().values());
-                Collections.shuffle(clientList);
+                SplittableRandom random = serverDataModel.getRandomStreams().create(RandomStreams.PARTICIPANTS, group.getGroupId());
+                RandomStreams.shuffle(clientList, random);
                 getLogger().info("TRUST GAME shuffled client list: " + clientList);
                 ClientData first = clientList.getFirst();
 
@@ -831,7 +880,7 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                         break;
                     }
                     processRound();
-                    Utils.sleep(SERVER_SLEEP_INTERVAL);
+                    tickScheduler.awaitNextTick();
                     break;
                 case IN_BETWEEN_ROUNDS:
                     // FIXME: there is an inherent nastiness going on with this model of control flow
@@ -900,6 +949,14 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
         private void stopRound() {
             serverState = ServerState.IN_BETWEEN_ROUNDS;
+            getLogger().info("Round tick statistics: " + tickScheduler);
+            getLogger().info("Round tick stage statistics: " + tickBudget);
+            if (tickScheduler.getOverruns() > 0) {
+                sendFacilitatorMessage(String.format("Server fell behind on %d of %d ticks (max lateness %.1f ms)",
+                        tickScheduler.getOverruns(), tickScheduler.getTicks(), tickScheduler.getMaxLatenessMillis()));
+            }
+            // updates still queued for the round are stale, make sure none of them reach a client after its EndRoundEvent
+            outbox.clear(OUTBOX_CLEAR_TIMEOUT);
             sendEndRoundEvents();
             if (getCurrentRoundConfiguration().shouldWaitForFacilitatorSignal()) {
                 // stop most of the round but don't persist/cleanup yet.
@@ -919,6 +976,8 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
         private void cleanupRound() {
             numberOfSubmittedQuizzes = 0;
+            acknowledgedStateVersions.clear();
+            clientsToResynchronize.clear();
             groupsInitialized = false;
             serverDataModel.cleanupRound();
             for (ClientData clientData : clients.values()) {
@@ -928,6 +987,8 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
         private void advanceToNextRound() {
             if (getConfiguration().isLastRound()) {
+                // no more rounds, the per-tick updates are done
+                outbox.shutdown();
                 return;
             }
             RoundConfiguration nextRoundConfiguration = getConfiguration().nextRound();
@@ -940,10 +1001,20 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
             transmit(new SetConfigurationEvent<ServerConfiguration, RoundConfiguration>(getFacilitatorId(), nextRoundConfiguration));
         }
 
+        /**
+         * Runs the given stage if its duration has expired, unless the tick is already over budget in which case
+         * the stage is deferred and its duration stays expired until the next tick.
+         */
+        private void runStage(TickBudget.Stage stage, Duration duration, Consumer<Duration> action) {
+            if (duration.hasExpired() && tickBudget.shouldDefer(stage)) {
+                return;
+            }
+            tickBudget.run(stage, () -> duration.onTick(action));
+        }
+
         private void processSinglePlayerRound() {
-            // generate resources every second
-            secondTick.onTick((duration) -> {
-                resourceDispenser.generateResources();
+            runStage(TickBudget.Stage.REGROWTH, regrowthTick, (duration) -> resourceDispenser.generateResources());
+            runStage(TickBudget.Stage.SYNCHRONIZATION, secondTick, (duration) -> {
                 // for a second duration, isModulo(N) will return true every N seconds
                 if (duration.isModulo(4)) {
                     clients.forEach((id, data) -> { 
@@ -952,12 +1023,13 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
                     });
                 }
             });
-            // activate bots
-            botTick.onTick((duration) -> {
-                // botTick duration runs every 100ms, so duration.isModulo(10) will return true every 1s to reset
-                // bot actions every second.
-                serverDataModel.getGroups().forEach((group) -> group.activateBots(duration.isModulo(10))); 
-            });
+            // activate bots, isModulo(botTicksPerSecond) will return true every 1s to reset bot actions every second.
+            runStage(TickBudget.Stage.BOTS, botTick,
+                    (duration) -> serverDataModel.getGroups().forEach((group) -> group.activateBots(duration.isModulo(botTicksPerSecond))));
+            tickBudget.run(TickBudget.Stage.CLIENT_UPDATES, this::sendSinglePlayerUpdates);
+        }
+
+        private void sendSinglePlayerUpdates() {
             // update client with bot positions and updated resource totals
             for (GroupDataModel group : serverDataModel.getGroups()) {
                 group.getClientIdentifiers().forEach((id) -> {
@@ -984,45 +1056,67 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
         }
 
         private void processRound() {
+            tickBudget.startTick();
+            if (checkpointTick != null) {
+                checkpointTick.onTick((duration) -> serverDataModel.checkpoint(persister::store));
+            }
             if (singlePlayer) {
                 processSinglePlayerRound();
                 return;
             }
-            secondTick.onTick(
+            runStage(TickBudget.Stage.SYNCHRONIZATION, secondTick,
                     (duration) -> {
                         for (ClientData data : clients.values()) {
                             if (shouldSynchronize(data, duration)) {
-                                getLogger().info("Sending full sync to: " + data.getId());
-                                transmit(new SynchronizeClientEvent(data, currentRoundDuration.getTimeLeft()));
-                                synchronizedClients.add(data.getId());
+                                synchronize(data, duration.getStartCount() == 0);
                             }
                         }
-                        resourceDispenser.generateResources();
                     });
+            runStage(TickBudget.Stage.REGROWTH, regrowthTick, (duration) -> resourceDispenser.generateResources());
             if (botGroupsEnabled) {
-                botTick.onTick((duration) -> {
+                runStage(TickBudget.Stage.BOTS, botTick, (duration) -> {
                     for (GroupDataModel group : serverDataModel.getGroups()) {
-                        // only activate bots every 100 ms, otherwise they frontload all their actions.
+                        // only activate bots every bot tick, otherwise they frontload all their actions.
                         // and clear all bot action taken counters every 1 s
-                        boolean resetBotActions = duration.isModulo(10);
+                        boolean resetBotActions = duration.isModulo(botTicksPerSecond);
                         group.activateBots(resetBotActions);
                     }
                 });
             }
+            tickBudget.run(TickBudget.Stage.CLIENT_UPDATES, this::sendClientUpdates);
+        }
+
+        private void sendClientUpdates() {
+            long now = System.currentTimeMillis();
             for (GroupDataModel group : serverDataModel.getGroups()) {
+                if (! group.takeChanges()) {
+                    // idle group, only keep the clients' timers running
+                    Long lastUpdate = lastGroupUpdates.get(group);
+                    if (lastUpdate == null || now - lastUpdate >= heartbeatInterval) {
+                        long timeLeft = currentRoundDuration.getTimeLeft();
+                        for (Identifier id : group.getClientIdentifiers()) {
+                            outbox.transmit(new HeartbeatEvent(id, timeLeft));
+                        }
+                        lastGroupUpdates.put(group, now);
+                    }
+                    continue;
+                }
+                lastGroupUpdates.put(group, now);
                 Set<Resource> addedTokensSet = group.getAddedResources();
                 Resource[] addedResources = addedTokensSet.toArray(new Resource[addedTokensSet.size()]);
                 Set<Resource> removedTokensSet = group.getRemovedResources();
                 Resource[] removedResources = removedTokensSet.toArray(new Resource[removedTokensSet.size()]);
-                Map<Identifier, Integer> clientTokens = group.getClientTokens();
-                Map<Identifier, Point> clientPositions = group.getClientPositions();
+                // encode the group-wide part of the update once here instead of once per client in the dispatcher
+                GroupUpdateFrame frame = group.getStateHistory().publish(addedResources, removedResources, group.getClientTokens(), group.getClientPositions());
+                frame.getEncoded();
+                long timeLeft = currentRoundDuration.getTimeLeft();
                 group.getClientDataMap().forEach((id, data) -> {
-                    if (synchronizedClients.contains(id)) {
-                        // skip this update, then remove them from the sync set.
-                        synchronizedClients.remove(id);
-                    } else {
-                        transmit(new ClientPositionUpdateEvent(data, addedResources, removedResources, clientTokens, clientPositions,
-                                currentRoundDuration.getTimeLeft()));
+                    // versioned frames apply cleanly on top of a synchronization sent earlier in this tick, so
+                    // synchronized clients don't need to skip this update
+                    GroupUpdateFrame clientFrame = interestManager.isFiltered(data) ? interestManager.filter(data, frame) : frame;
+                    outbox.transmit(new ClientPositionUpdateEvent(data, clientFrame, timeLeft));
+                    if (clientsToResynchronize.remove(id)) {
+                        synchronize(data, false);
                     }
                     // post-process cleanup of transient data structures on ClientData
                     data.clearCollectedTokens();
@@ -1043,10 +1137,43 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
             return false;
         }
 
+        /**
+         * Sends the whole group at the start of the round and afterwards a catch-up delta from the client's last
+         * acknowledged group state version, or a compact snapshot if the server no longer has the history for it.
+         *
+         * Events queued in the outbox are serialized later on a sender thread while this thread keeps changing the
+         * groups, so they may only hold copies of the group state: the catch-up deltas and snapshots are built from
+         * ResourceDiffs and copied token and position maps here. The full sync wraps the live GroupDataModel and is
+         * transmitted directly instead, so it is serialized before the group changes again.
+         */
+        private void synchronize(ClientData data, boolean full) {
+            Identifier id = data.getId();
+            GroupDataModel group = data.getGroupDataModel();
+            GroupStateHistory stateHistory = group.getStateHistory();
+            long timeLeft = currentRoundDuration.getTimeLeft();
+            if (full) {
+                getLogger().info("Sending full sync to: " + id);
+                transmit(new SynchronizeClientEvent(data, timeLeft, stateHistory.getVersion()));
+                interestManager.reset(data);
+                return;
+            }
+            if (interestManager.isFiltered(data)) {
+                // a catch-up delta would cover the whole board, only send what the client can see
+                outbox.transmit(interestManager.createSnapshot(data, stateHistory.getVersion(), timeLeft));
+                return;
+            }
+            Long acknowledgedVersion = acknowledgedStateVersions.get(id);
+            SynchronizeGroupStateEvent event = stateHistory.createSynchronizeEvent(id, group,
+                    (acknowledgedVersion == null) ? SynchronizeGroupStateEvent.SNAPSHOT : acknowledgedVersion, timeLeft);
+            getLogger().fine("Sending " + event);
+            outbox.transmit(event);
+        }
+
         private boolean shouldSynchronize(ClientData data, Duration duration) {
             long startCount = duration.getStartCount();
             int assignedNumber = data.getAssignedNumber();
-            return (startCount == 0) || ((startCount % SYNCHRONIZATION_FREQUENCY) == (assignedNumber * 10));
+            // stagger full syncs across clients within each synchronization period
+            return (startCount == 0) || ((startCount % synchronizationFrequency) == ((assignedNumber * 10) % synchronizationFrequency));
         }
 
         private void sendEndRoundEvents() {
@@ -1077,7 +1204,7 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
 
         private void shuffleParticipants() {
             List<ClientData> randomizedClients = new ArrayList<>(clients.values());
-            Collections.shuffle(randomizedClients);
+            RandomStreams.shuffle(randomizedClients, serverDataModel.getRandomStreams().create(RandomStreams.PARTICIPANTS));
             // clear all existing group linkages
             serverDataModel.clear();
             // generate new group linkages
@@ -1146,10 +1273,32 @@ public class ForagingServer extends AbstractExperiment<ServerConfiguration, Roun
             }
             currentRoundDuration.start();
             transmit(new FacilitatorUpdateEvent(getFacilitatorId(), serverDataModel, currentRoundDuration.getTimeLeft()));
+            synchronizationFrequency = roundConfiguration.getSynchronizationFrequency();
+            int botTickInterval = Math.max(1, roundConfiguration.getBotTickInterval());
+            botTicksPerSecond = Math.max(1, 1000 / botTickInterval);
+            botTick = Duration.create((long) botTickInterval);
+            regrowthTick = Duration.create((long) Math.max(1, roundConfiguration.getRegrowthInterval()));
+            tickScheduler = new TickScheduler(roundConfiguration.getServerSleepInterval(),
+                    TickScheduler.OverrunPolicy.find(roundConfiguration.getTickOverrunPolicy()),
+                    roundConfiguration.getMaxCatchUpTicks());
+            tickBudget = new TickBudget(roundConfiguration);
+            interestManager = new InterestManager(roundConfiguration);
+            heartbeatInterval = roundConfiguration.getHeartbeatInterval();
+            lastGroupUpdates.clear();
+            int checkpointInterval = roundConfiguration.getJournalCheckpointInterval();
+            checkpointTick = (checkpointInterval > 0 && persister.isJournaling()) ? Duration.create((long) checkpointInterval) : null;
+            getLogger().info(String.format("tick period: %d ms (%s), regrowth every %d ms, bots every %d ms, full sync every %d s",
+                    tickScheduler.getPeriodMillis(), tickScheduler.getOverrunPolicy(), roundConfiguration.getRegrowthInterval(),
+                    botTickInterval, synchronizationFrequency));
             secondTick.start();
+            regrowthTick.start();
             if (roundConfiguration.isBotGroupsEnabled()) {
                 botTick.start();
             }
+            if (checkpointTick != null) {
+                checkpointTick.start();
+            }
+            tickScheduler.start();
         }
     }
 
@@ -0,0 +1,162 @@
+package edu.asu.commons.foraging.server;
+
+import java.awt.Point;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
+import edu.asu.commons.foraging.event.ResourceDiff;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.net.Identifier;
+
+/**
+ * Server-side interest management for field of vision treatments. Clients with a limited field of vision only draw
+ * the tokens and subjects inside their view, so their updates only need to carry the token changes and positions
+ * inside it (padded by the field-of-vision-margin).
+ *
+ * Token diffs are filtered against the view the client was last sent. Cells that were already in that view get the
+ * group's changes as usual, cells that have just come into view get their current state from the group's resource
+ * grid since the client may have missed changes while they were out of view. Cells that leave the view are simply no
+ * longer updated, the client doesn't draw them. Diffs are kept in row-major order so the rows spanned by a view are
+ * found with a binary search instead of a scan of the whole diff.
+ *
+ * Only used from the experiment thread, a new InterestManager is created for every round.
+ */
+public class InterestManager {
+
+    private interface CellVisitor {
+        void visit(int x, int y);
+    }
+
+    private final int margin;
+    private final int boardWidth;
+    private final int boardHeight;
+
+    // center of the token view each client was last sent, i.e., the region of the board the client is up to date on
+    private final Map<Identifier, Point> tokenViewCenters = new HashMap<>();
+
+    public InterestManager(RoundConfiguration roundConfiguration) {
+        this.margin = Math.max(0, roundConfiguration.getFieldOfVisionMargin());
+        this.boardWidth = roundConfiguration.getResourceWidth();
+        this.boardHeight = roundConfiguration.getResourceDepth();
+    }
+
+    public boolean isFiltered(ClientData data) {
+        return data.isTokensFieldOfVisionEnabled() || data.isSubjectsFieldOfVisionEnabled();
+    }
+
+    /**
+     * Returns the part of the given group frame that the client can see. The returned frame keeps the group's state
+     * version so that acknowledgements and catch-up still work.
+     */
+    public GroupUpdateFrame filter(ClientData data, GroupUpdateFrame frame) {
+        ResourceDiff addedResources = frame.getAddedResourceDiff();
+        ResourceDiff removedResources = frame.getRemovedResourceDiff();
+        if (data.isTokensFieldOfVisionEnabled()) {
+            Point center = new Point(data.getPoint());
+            Point previousCenter = tokenViewCenters.put(data.getId(), center);
+            double radius = data.getViewTokensRadius() + margin;
+            ResourceDiff.Builder added = new ResourceDiff.Builder();
+            ResourceDiff.Builder removed = new ResourceDiff.Builder();
+            if (previousCenter != null) {
+                int extent = (int) radius;
+                ResourceDiff.CellFilter inBothViews = (x, y) -> contains(center, radius, x, y) && contains(previousCenter, radius, x, y);
+                added.addAll(addedResources.select(center.y - extent, center.y + extent, inBothViews));
+                removed.addAll(removedResources.select(center.y - extent, center.y + extent, inBothViews));
+            }
+            if (! center.equals(previousCenter)) {
+                GroupDataModel group = data.getGroupDataModel();
+                forEachCell(center, radius, (x, y) -> {
+                    if (previousCenter == null || ! contains(previousCenter, radius, x, y)) {
+                        if (group.isResourceAt(x, y)) {
+                            added.add(x, y, group.getResourceAge(x, y));
+                        }
+                        else {
+                            removed.add(x, y, 0);
+                        }
+                    }
+                });
+            }
+            addedResources = added.build();
+            removedResources = removed.build();
+        }
+        return new GroupUpdateFrame(frame.getVersion(), addedResources, removedResources, frame.getClientTokens(),
+                filterPositions(data, frame.getClientPositions()));
+    }
+
+    /**
+     * Creates a snapshot of the part of the group's state that the client can see. The client replaces its tokens
+     * with the snapshot, so afterwards it is up to date on its current view.
+     */
+    public SynchronizeGroupStateEvent createSnapshot(ClientData data, long version, long timeLeft) {
+        GroupDataModel group = data.getGroupDataModel();
+        ResourceDiff resources;
+        if (data.isTokensFieldOfVisionEnabled()) {
+            Point center = new Point(data.getPoint());
+            tokenViewCenters.put(data.getId(), center);
+            ResourceDiff.Builder builder = new ResourceDiff.Builder();
+            forEachCell(center, data.getViewTokensRadius() + margin, (x, y) -> {
+                if (group.isResourceAt(x, y)) {
+                    builder.add(x, y, group.getResourceAge(x, y));
+                }
+            });
+            resources = builder.build();
+        }
+        else {
+            resources = ResourceDiff.of(group.getResourceDistribution().values());
+        }
+        Map<Identifier, Point> positions = filterPositions(data, group.getClientPositions());
+        return new SynchronizeGroupStateEvent(data.getId(), version, SynchronizeGroupStateEvent.SNAPSHOT,
+                resources, ResourceDiff.EMPTY, group.getClientTokens(), positions, timeLeft, data.getLastInputSequence());
+    }
+
+    /**
+     * Marks the client as up to date on the whole board, e.g., after it has been sent the full group state.
+     */
+    public void reset(ClientData data) {
+        tokenViewCenters.put(data.getId(), new Point(data.getPoint()));
+    }
+
+    private Map<Identifier, Point> filterPositions(ClientData data, Map<Identifier, Point> clientPositions) {
+        if (! data.isSubjectsFieldOfVisionEnabled()) {
+            return clientPositions;
+        }
+        Identifier id = data.getId();
+        Point center = data.getPoint();
+        double radius = data.getViewSubjectsRadius() + margin;
+        Map<Identifier, Point> visiblePositions = new HashMap<>();
+        clientPositions.forEach((otherId, position) -> {
+            // always include the client's own position, the client takes it from the update
+            if (otherId.equals(id) || (position != null && contains(center, radius, position.x, position.y))) {
+                visiblePositions.put(otherId, position);
+            }
+        });
+        return visiblePositions;
+    }
+
+    private void forEachCell(Point center, double radius, CellVisitor visitor) {
+        int extent = (int) radius;
+        int maxY = Math.min(boardHeight - 1, center.y + extent);
+        int maxX = Math.min(boardWidth - 1, center.x + extent);
+        for (int y = Math.max(0, center.y - extent); y <= maxY; y++) {
+            for (int x = Math.max(0, center.x - extent); x <= maxX; x++) {
+                if (contains(center, radius, x, y)) {
+                    visitor.visit(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same test as Circle.contains(Point), without allocating a Point per cell.
+     */
+    private static boolean contains(Point center, double radius, int x, int y) {
+        long dx = x - center.x;
+        long dy = y - center.y;
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+}
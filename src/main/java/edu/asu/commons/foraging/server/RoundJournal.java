@@ -0,0 +1,257 @@
+package edu.asu.commons.foraging.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.foraging.event.GroupStateCheckpoint;
+
+/**
+ * Append-only journal of a single round's persistable events. Events are written to the round's segment file as they
+ * are stored instead of being held in memory until the round is saved, and the file is forced to disk every sync
+ * interval, also when no further events arrive, so a crash loses at most that much of the round.
+ *
+ * Segment layout, all numbers big-endian:
+ * <pre>
+ * header:  int MAGIC, short FORMAT_VERSION, UTF round label, long start time (ms)
+ * record:  int payload length, int CRC32 of kind + time + payload, byte kind, long time, payload
+ * footer:  a FOOTER record: int number of events, long first and last event time, int index size and an
+ *          (event time, record offset) index entry for every INDEX_INTERVAL-th event, int number of checkpoints and
+ *          a (checkpoint time, record offset) entry for every checkpoint
+ * trailer: long footer record offset, int END_MAGIC
+ * </pre>
+ * EVENT and CHECKPOINT payloads are the Java serialized event or GroupStateCheckpoint, each record is serialized on
+ * its own so that records can be decoded independently. Checkpoints don't count as events. A segment without a trailer was not closed properly and is read up to its last intact record.
+ */
+public class RoundJournal implements Closeable {
+
+    public final static int MAGIC = 0x464A4E4C;
+    public final static int END_MAGIC = 0x464A4E45;
+    public final static short FORMAT_VERSION = 2;
+    public final static String FILE_EXTENSION = ".journal";
+
+    public final static byte EVENT = 1;
+    public final static byte FOOTER = 2;
+    public final static byte CHECKPOINT = 3;
+
+    public final static int RECORD_HEADER_SIZE = 4 + 4 + 1 + 8;
+    public final static int TRAILER_SIZE = 8 + 4;
+    public final static int INDEX_INTERVAL = 256;
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long syncIntervalMillis;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(512);
+    private final CRC32 crc = new CRC32();
+
+    private long position;
+    private long syncedPosition;
+    private long lastSync = System.currentTimeMillis();
+    private int eventCount;
+    private long firstEventTime;
+    private long lastEventTime;
+    private long[] indexTimes = new long[16];
+    private long[] indexOffsets = new long[16];
+    private int indexSize;
+    private long[] checkpointTimes = new long[16];
+    private long[] checkpointOffsets = new long[16];
+    private int checkpointCount;
+    private boolean closed;
+
+    private RoundJournal(File file, long syncIntervalMillis) throws IOException {
+        this.file = file;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Creates a new segment for the given round in the given directory.
+     */
+    public static RoundJournal create(File directory, String roundLabel, long syncIntervalMillis) throws IOException {
+        if (! directory.isDirectory() && ! directory.mkdirs()) {
+            throw new IOException("Couldn't create journal directory " + directory);
+        }
+        long startTime = System.currentTimeMillis();
+        String name = roundLabel.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "");
+        File file = new File(directory, name + "-" + startTime + FILE_EXTENSION);
+        RoundJournal journal = new RoundJournal(file, syncIntervalMillis);
+        DataOutputStream header = new DataOutputStream(journal.payload);
+        header.writeInt(MAGIC);
+        header.writeShort(FORMAT_VERSION);
+        header.writeUTF(roundLabel);
+        header.writeLong(startTime);
+        journal.write(ByteBuffer.wrap(journal.payload.toByteArray()));
+        journal.payload.reset();
+        return journal;
+    }
+
+    /**
+     * Appends the event, or a CHECKPOINT record if the event is a GroupStateCheckpoint.
+     */
+    public synchronized void append(PersistableEvent event) throws IOException {
+        ensureOpen();
+        payload.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(payload)) {
+            out.writeObject(event);
+        }
+        long time = event.getCreationTime();
+        if (event instanceof GroupStateCheckpoint) {
+            if (checkpointCount == checkpointTimes.length) {
+                checkpointTimes = Arrays.copyOf(checkpointTimes, checkpointCount * 2);
+                checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+            }
+            checkpointTimes[checkpointCount] = time;
+            checkpointOffsets[checkpointCount] = position;
+            checkpointCount++;
+            writeRecord(CHECKPOINT, time, payload.toByteArray());
+        }
+        else {
+            if (eventCount % INDEX_INTERVAL == 0) {
+                addIndexEntry(time, position);
+            }
+            if (eventCount == 0) {
+                firstEventTime = time;
+            }
+            lastEventTime = time;
+            eventCount++;
+            writeRecord(EVENT, time, payload.toByteArray());
+        }
+        syncIfDue();
+    }
+
+    /**
+     * Writes out buffered records and forces them to disk.
+     */
+    public synchronized void sync() throws IOException {
+        flush();
+        channel.force(false);
+        lastSync = System.currentTimeMillis();
+        syncedPosition = position;
+    }
+
+    /**
+     * Syncs the journal if records were appended since the last sync and the sync interval has passed. Called after
+     * every append and periodically while no events arrive, so that the last events before a quiet period don't stay
+     * buffered until the next one. Returns true if the journal was synced.
+     */
+    public synchronized boolean syncIfDue() throws IOException {
+        if (closed || position == syncedPosition || System.currentTimeMillis() - lastSync < syncIntervalMillis) {
+            return false;
+        }
+        sync();
+        return true;
+    }
+
+    /**
+     * Finishes the segment with its footer and trailer and closes it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            payload.reset();
+            DataOutputStream footer = new DataOutputStream(payload);
+            footer.writeInt(eventCount);
+            footer.writeLong(firstEventTime);
+            footer.writeLong(lastEventTime);
+            footer.writeInt(indexSize);
+            for (int i = 0; i < indexSize; i++) {
+                footer.writeLong(indexTimes[i]);
+                footer.writeLong(indexOffsets[i]);
+            }
+            footer.writeInt(checkpointCount);
+            for (int i = 0; i < checkpointCount; i++) {
+                footer.writeLong(checkpointTimes[i]);
+                footer.writeLong(checkpointOffsets[i]);
+            }
+            long footerOffset = position;
+            writeRecord(FOOTER, System.currentTimeMillis(), payload.toByteArray());
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(footerOffset).putInt(END_MAGIC).flip();
+            write(trailer);
+            sync();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    private void writeRecord(byte kind, long time, byte[] data) throws IOException {
+        crc.reset();
+        crc.update(kind);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (time >>> shift));
+        }
+        crc.update(data, 0, data.length);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(data.length).putInt((int) crc.getValue()).put(kind).putLong(time).flip();
+        write(header);
+        write(ByteBuffer.wrap(data));
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        position += data.remaining();
+        if (data.remaining() > buffer.remaining()) {
+            flush();
+            if (data.remaining() > buffer.capacity()) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                return;
+            }
+        }
+        buffer.put(data);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void addIndexEntry(long time, long offset) {
+        if (indexSize == indexTimes.length) {
+            indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+        }
+        indexTimes[indexSize] = time;
+        indexOffsets[indexSize] = offset;
+        indexSize++;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Journal " + file + " is already closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RoundJournal [%s, %d events]", file, eventCount);
+    }
+
+}
@@ -0,0 +1,402 @@
+package edu.asu.commons.foraging.server;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.foraging.event.GroupStateCheckpoint;
+import edu.asu.commons.foraging.model.ServerDataModel;
+
+/**
+ * Read-only view of a RoundJournal segment. The segment is memory-mapped and events are only decoded as they are
+ * iterated, so the heap needed to go through a round doesn't grow with its length. Iterators can start at any time
+ * offset into the round: the footer's sparse index locates the nearest earlier record and the rest of the way only
+ * record headers are read. Replays to a point in the round can instead start from the latest GroupStateCheckpoint
+ * before it, see iteratorFromCheckpoint().
+ *
+ * Segments that were never closed, e.g., after a crash, have no footer. Their records are scanned once when opened
+ * and the view ends at the last complete record.
+ */
+public class RoundJournalReader implements Closeable, Iterable<PersistableEvent> {
+
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String roundLabel;
+    private final long startTime;
+    private final int firstRecordOffset;
+    // end of the last complete record, i.e., the footer record's offset if the segment was closed
+    private final int recordsEnd;
+    private final boolean closedProperly;
+    private final short version;
+
+    private int eventCount;
+    private long[] indexTimes;
+    private int[] indexOffsets;
+    private long[] checkpointTimes = new long[0];
+    private int[] checkpointOffsets = new int[0];
+
+    public RoundJournalReader(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map, round journals are expected to stay well below 2GB");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer header = buffer.duplicate();
+            if (header.getInt() != RoundJournal.MAGIC) {
+                throw new StreamCorruptedException(file + " is not a round journal");
+            }
+            this.version = header.getShort();
+            // version 1 segments only differ in having no checkpoints
+            if (version < 1 || version > RoundJournal.FORMAT_VERSION) {
+                throw new StreamCorruptedException("unsupported round journal format " + version + " in " + file);
+            }
+            byte[] label = new byte[header.getShort() & 0xFFFF];
+            header.get(label);
+            // the label is modified UTF-8, which only differs from UTF-8 for characters round labels don't contain
+            this.roundLabel = new String(label, StandardCharsets.UTF_8);
+            this.startTime = header.getLong();
+            this.firstRecordOffset = header.position();
+            int footerOffset = findFooter();
+            this.closedProperly = footerOffset >= 0;
+            if (closedProperly) {
+                this.recordsEnd = footerOffset;
+                readFooter(footerOffset);
+            }
+            else {
+                this.recordsEnd = scanRecords();
+            }
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException exception) {
+            channel.close();
+            if (exception instanceof IOException) {
+                throw (IOException) exception;
+            }
+            throw new StreamCorruptedException("truncated round journal header in " + file);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getRoundLabel() {
+        return roundLabel;
+    }
+
+    /**
+     * Returns the time the segment was created, time offsets are relative to it.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns false if the segment has no footer because the server stopped before the round was saved.
+     */
+    public boolean isClosedProperly() {
+        return closedProperly;
+    }
+
+    @Override
+    public Iterator<PersistableEvent> iterator() {
+        return new EventIterator(firstRecordOffset);
+    }
+
+    /**
+     * Returns an iterator starting at the first event created at least the given number of milliseconds after the
+     * segment's start time. Events are in the order they were stored.
+     */
+    public Iterator<PersistableEvent> iterator(long timeOffset) {
+        long time = startTime + timeOffset;
+        int offset = firstRecordOffset;
+        // last index entry strictly before the requested time, events created at the same millisecond may precede it
+        int entry = Arrays.binarySearch(indexTimes, 0, indexTimes.length, time);
+        entry = (entry < 0) ? -entry - 2 : entry - 1;
+        while (entry >= 0 && indexTimes[entry] >= time) {
+            entry--;
+        }
+        if (entry >= 0) {
+            offset = indexOffsets[entry];
+        }
+        ByteBuffer records = buffer.duplicate();
+        while (offset < recordsEnd) {
+            records.position(offset);
+            int length = records.getInt();
+            records.getInt();
+            byte kind = records.get();
+            if (kind == RoundJournal.EVENT && records.getLong() >= time) {
+                break;
+            }
+            offset += RoundJournal.RECORD_HEADER_SIZE + length;
+        }
+        return new EventIterator(offset);
+    }
+
+    public int getNumberOfCheckpoints() {
+        return checkpointTimes.length;
+    }
+
+    /**
+     * Returns the time offset of the given checkpoint, e.g., to step backwards to the previous one.
+     */
+    public long getCheckpointTimeOffset(int checkpoint) {
+        return checkpointTimes[checkpoint] - startTime;
+    }
+
+    /**
+     * Prepares a replay to the given time offset: restores the latest checkpoint at or before it onto the data model
+     * and returns an iterator over the events stored after that checkpoint, which the caller applies up to the time
+     * it wants to reach. If there is no such checkpoint the data model is left alone and the iterator starts at the
+     * first event, as for a replay from the start of the round.
+     */
+    public Iterator<PersistableEvent> iteratorFromCheckpoint(long timeOffset, ServerDataModel serverDataModel) {
+        return iteratorFromCheckpoint(timeOffset, checkpoint -> checkpoint.restore(serverDataModel));
+    }
+
+    /**
+     * Hands the latest checkpoint at or before the given time offset to the checkpoint handler and returns an
+     * iterator over the events stored after it. If there is no such checkpoint the handler isn't called and the
+     * iterator starts at the first event.
+     */
+    public Iterator<PersistableEvent> iteratorFromCheckpoint(long timeOffset, Consumer<? super GroupStateCheckpoint> checkpointHandler) {
+        long time = startTime + timeOffset;
+        int checkpoint = Arrays.binarySearch(checkpointTimes, time);
+        // for equal times binarySearch may find any of them, use the last one
+        if (checkpoint >= 0) {
+            while (checkpoint + 1 < checkpointTimes.length && checkpointTimes[checkpoint + 1] == time) {
+                checkpoint++;
+            }
+        }
+        else {
+            checkpoint = -checkpoint - 2;
+        }
+        if (checkpoint < 0) {
+            return iterator();
+        }
+        int offset = checkpointOffsets[checkpoint];
+        try {
+            checkpointHandler.accept((GroupStateCheckpoint) decode(offset));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return new EventIterator(offset + getRecordLength(offset));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int findFooter() {
+        int size = buffer.limit();
+        if (size - firstRecordOffset < RoundJournal.TRAILER_SIZE) {
+            return -1;
+        }
+        ByteBuffer trailer = buffer.duplicate();
+        trailer.position(size - RoundJournal.TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        if (trailer.getInt() != RoundJournal.END_MAGIC || footerOffset < firstRecordOffset || footerOffset >= size - RoundJournal.TRAILER_SIZE) {
+            return -1;
+        }
+        return (int) footerOffset;
+    }
+
+    private void readFooter(int footerOffset) throws IOException {
+        ByteBuffer footer = buffer.duplicate();
+        footer.position(footerOffset);
+        footer.getInt();
+        footer.getInt();
+        if (footer.get() != RoundJournal.FOOTER) {
+            throw new StreamCorruptedException("invalid footer in " + file);
+        }
+        footer.getLong();
+        eventCount = footer.getInt();
+        footer.getLong();
+        footer.getLong();
+        int indexSize = footer.getInt();
+        indexTimes = new long[indexSize];
+        indexOffsets = new int[indexSize];
+        for (int i = 0; i < indexSize; i++) {
+            indexTimes[i] = footer.getLong();
+            indexOffsets[i] = (int) footer.getLong();
+        }
+        if (version >= 2) {
+            int checkpointCount = footer.getInt();
+            checkpointTimes = new long[checkpointCount];
+            checkpointOffsets = new int[checkpointCount];
+            for (int i = 0; i < checkpointCount; i++) {
+                checkpointTimes[i] = footer.getLong();
+                checkpointOffsets[i] = (int) footer.getLong();
+            }
+        }
+    }
+
+    /**
+     * Counts and indexes the complete records of a segment without footer and returns where they end.
+     */
+    private int scanRecords() {
+        ByteBuffer records = buffer.duplicate();
+        int offset = firstRecordOffset;
+        long[] times = new long[16];
+        int[] offsets = new int[16];
+        int indexSize = 0;
+        long[] checkpoints = new long[16];
+        int[] checkpointPositions = new int[16];
+        int checkpointCount = 0;
+        while (buffer.limit() - offset >= RoundJournal.RECORD_HEADER_SIZE) {
+            records.position(offset);
+            int length = records.getInt();
+            records.getInt();
+            byte kind = records.get();
+            long time = records.getLong();
+            if (length < 0 || length > buffer.limit() - offset - RoundJournal.RECORD_HEADER_SIZE) {
+                break;
+            }
+            if (kind == RoundJournal.EVENT) {
+                if (eventCount % RoundJournal.INDEX_INTERVAL == 0) {
+                    if (indexSize == times.length) {
+                        times = Arrays.copyOf(times, indexSize * 2);
+                        offsets = Arrays.copyOf(offsets, indexSize * 2);
+                    }
+                    times[indexSize] = time;
+                    offsets[indexSize] = offset;
+                    indexSize++;
+                }
+                eventCount++;
+            }
+            else if (kind == RoundJournal.CHECKPOINT) {
+                if (checkpointCount == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+                    checkpointPositions = Arrays.copyOf(checkpointPositions, checkpointCount * 2);
+                }
+                checkpoints[checkpointCount] = time;
+                checkpointPositions[checkpointCount] = offset;
+                checkpointCount++;
+            }
+            offset += RoundJournal.RECORD_HEADER_SIZE + length;
+        }
+        indexTimes = Arrays.copyOf(times, indexSize);
+        indexOffsets = Arrays.copyOf(offsets, indexSize);
+        checkpointTimes = Arrays.copyOf(checkpoints, checkpointCount);
+        checkpointOffsets = Arrays.copyOf(checkpointPositions, checkpointCount);
+        return offset;
+    }
+
+    /**
+     * Decodes the event in the record at the given offset after checking the record's CRC.
+     */
+    private PersistableEvent decode(int offset) throws IOException {
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        int length = record.getInt();
+        int checksum = record.getInt();
+        ByteBuffer checked = record.slice();
+        checked.limit(1 + 8 + length);
+        CRC32 crc = new CRC32();
+        crc.update(checked.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new StreamCorruptedException("corrupt record at offset " + offset + " in " + file);
+        }
+        checked.position(1 + 8);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(checked))) {
+            return (PersistableEvent) in.readObject();
+        } catch (ClassNotFoundException exception) {
+            throw new IOException("Couldn't decode record at offset " + offset + " in " + file, exception);
+        }
+    }
+
+    private byte getKind(int offset) {
+        return buffer.get(offset + 8);
+    }
+
+    private int getRecordLength(int offset) {
+        return RoundJournal.RECORD_HEADER_SIZE + buffer.getInt(offset);
+    }
+
+    private class EventIterator implements Iterator<PersistableEvent> {
+        private int offset;
+
+        EventIterator(int offset) {
+            this.offset = offset;
+            skipToEvent();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return offset < recordsEnd;
+        }
+
+        @Override
+        public PersistableEvent next() {
+            if (! hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return decode(offset);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            } finally {
+                offset += getRecordLength(offset);
+                skipToEvent();
+            }
+        }
+
+        private void skipToEvent() {
+            while (offset < recordsEnd && getKind(offset) != RoundJournal.EVENT) {
+                offset += getRecordLength(offset);
+            }
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (! buffer.hasRemaining()) {
+                return -1;
+            }
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
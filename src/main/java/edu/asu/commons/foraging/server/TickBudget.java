@@ -0,0 +1,136 @@
+package edu.asu.commons.foraging.server;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+
+/**
+ * Per-stage time budgets for a single server tick. Each stage is timed against its own budget and overruns are
+ * logged; once the tick as a whole has used up its period, deferrable stages (regrowth, bots, full synchronization)
+ * are pushed to the next tick instead of making the tick even later. Since those stages are driven by Durations
+ * that stay expired until they run, a deferred stage simply fires on a later tick. A stage is never deferred more
+ * than MAX_CONSECUTIVE_DEFERRALS times in a row so a chronically overloaded server still regrows and moves bots.
+ *
+ * Like TickScheduler, this is only used from the experiment thread.
+ */
+public class TickBudget {
+
+    public enum Stage {
+        REGROWTH("regrowth", true),
+        BOTS("bot", true),
+        SYNCHRONIZATION("synchronization", true),
+        CLIENT_UPDATES("client-updates", false);
+
+        private final String propertyName;
+        private final boolean deferrable;
+
+        Stage(String propertyName, boolean deferrable) {
+            this.propertyName = propertyName;
+            this.deferrable = deferrable;
+        }
+
+        /**
+         * Returns the prefix of this stage's budget property, e.g., regrowth for regrowth-budget.
+         */
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        public boolean isDeferrable() {
+            return deferrable;
+        }
+    }
+
+    public final static int MAX_CONSECUTIVE_DEFERRALS = 2;
+
+    private final static Logger logger = Logger.getLogger(TickBudget.class.getName());
+
+    private final long tickBudgetNanos;
+    private final Map<Stage, Long> stageBudgets = new EnumMap<>(Stage.class);
+    private final Map<Stage, StageStatistics> statistics = new EnumMap<>(Stage.class);
+
+    private long tickStart;
+
+    public TickBudget(RoundConfiguration roundConfiguration) {
+        this.tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(roundConfiguration.getServerSleepInterval());
+        for (Stage stage : Stage.values()) {
+            stageBudgets.put(stage, TimeUnit.MILLISECONDS.toNanos(roundConfiguration.getTickStageBudget(stage.getPropertyName())));
+            statistics.put(stage, new StageStatistics());
+        }
+    }
+
+    public void startTick() {
+        tickStart = System.nanoTime();
+    }
+
+    /**
+     * Returns true (and counts a deferral) if the given stage should be skipped this tick because the tick has
+     * already used up its budget.
+     */
+    public boolean shouldDefer(Stage stage) {
+        StageStatistics stageStatistics = statistics.get(stage);
+        if (! stage.isDeferrable()
+                || System.nanoTime() - tickStart < tickBudgetNanos
+                || stageStatistics.consecutiveDeferrals >= MAX_CONSECUTIVE_DEFERRALS) {
+            stageStatistics.consecutiveDeferrals = 0;
+            return false;
+        }
+        stageStatistics.consecutiveDeferrals++;
+        stageStatistics.deferrals++;
+        logger.fine("Deferring " + stage + " to the next tick");
+        return true;
+    }
+
+    /**
+     * Runs the given stage and logs it if it took longer than its budget.
+     */
+    public void run(Stage stage, Runnable runnable) {
+        long start = System.nanoTime();
+        runnable.run();
+        long elapsed = System.nanoTime() - start;
+        StageStatistics stageStatistics = statistics.get(stage);
+        stageStatistics.maxElapsedNanos = Math.max(stageStatistics.maxElapsedNanos, elapsed);
+        long budget = stageBudgets.get(stage);
+        if (elapsed > budget) {
+            stageStatistics.overruns++;
+            // only warn about the first overrun of each stage, a stage that overruns once tends to keep overrunning
+            logger.log((stageStatistics.overruns == 1) ? Level.WARNING : Level.FINE,
+                    String.format("%s took %.1f ms, over its %d ms budget", stage, elapsed / 1e6d, TimeUnit.NANOSECONDS.toMillis(budget)));
+        }
+    }
+
+    public long getOverruns(Stage stage) {
+        return statistics.get(stage).overruns;
+    }
+
+    public long getDeferrals(Stage stage) {
+        return statistics.get(stage).deferrals;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("TickBudget [");
+        for (Stage stage : Stage.values()) {
+            StageStatistics stageStatistics = statistics.get(stage);
+            if (stage.ordinal() > 0) {
+                builder.append(", ");
+            }
+            builder.append(String.format("%s: budget=%d ms, max=%.1f ms, overruns=%d, deferrals=%d", stage,
+                    TimeUnit.NANOSECONDS.toMillis(stageBudgets.get(stage)), stageStatistics.maxElapsedNanos / 1e6d,
+                    stageStatistics.overruns, stageStatistics.deferrals));
+        }
+        return builder.append(']').toString();
+    }
+
+    private static class StageStatistics {
+        private long overruns;
+        private long deferrals;
+        private int consecutiveDeferrals;
+        private long maxElapsedNanos;
+    }
+
+}
@@ -0,0 +1,162 @@
+package edu.asu.commons.foraging.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline based fixed-rate pacing for the server's round loop. Tick n is due at start + n * period regardless of
+ * how long the previous tick took, so processing time doesn't accumulate as drift the way sleeping a fixed interval
+ * after each tick does.
+ *
+ * When a tick's work runs past the next tick's deadline the scheduler records an overrun and applies its OverrunPolicy:
+ * CATCH_UP runs the late ticks back to back (up to maxCatchUpTicks, older ones are dropped) to keep the long term
+ * tick rate, SKIP drops all missed ticks and restarts the schedule from the current time. Ticks that are caught up
+ * start after their deadline through no fault of their own, so they only count as overruns if they were started
+ * before the deadline they are measured against.
+ *
+ * Not thread-safe, meant to be driven by the experiment thread only.
+ */
+public class TickScheduler {
+
+    public enum OverrunPolicy {
+        CATCH_UP, SKIP;
+
+        public static OverrunPolicy find(String name) {
+            for (OverrunPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim().replace('-', '_'))) {
+                    return policy;
+                }
+            }
+            return CATCH_UP;
+        }
+    }
+
+    public final static int DEFAULT_MAX_CATCH_UP_TICKS = 3;
+
+    private final long periodNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final int maxCatchUpTicks;
+
+    private long nextDeadline;
+    private long tickStart;
+    private long ticks;
+    private long overruns;
+    private long skippedTicks;
+    private long maxLatenessNanos;
+    private long totalLatenessNanos;
+
+    public TickScheduler(long periodMillis) {
+        this(periodMillis, OverrunPolicy.CATCH_UP, DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    public TickScheduler(long periodMillis, OverrunPolicy overrunPolicy, int maxCatchUpTicks) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive: " + periodMillis);
+        }
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.overrunPolicy = overrunPolicy;
+        this.maxCatchUpTicks = Math.max(0, maxCatchUpTicks);
+    }
+
+    /**
+     * Resets all counters and schedules the first tick one period from now.
+     */
+    public void start() {
+        ticks = 0;
+        overruns = 0;
+        skippedTicks = 0;
+        maxLatenessNanos = 0;
+        totalLatenessNanos = 0;
+        tickStart = nanoTime();
+        nextDeadline = tickStart + periodNanos;
+    }
+
+    /**
+     * Blocks until the next tick is due. Returns immediately if it is already overdue.
+     */
+    public void awaitNextTick() {
+        long now = nanoTime();
+        long lateness = now - nextDeadline;
+        if (lateness < 0) {
+            sleep(-lateness);
+        }
+        else {
+            // a catch-up tick started after this deadline had already passed
+            if (tickStart < nextDeadline) {
+                overruns++;
+                totalLatenessNanos += lateness;
+                maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+            }
+            long missedTicks = lateness / periodNanos;
+            switch (overrunPolicy) {
+                case SKIP:
+                    skippedTicks += missedTicks;
+                    nextDeadline = now;
+                    break;
+                case CATCH_UP:
+                default:
+                    if (missedTicks > maxCatchUpTicks) {
+                        long droppedTicks = missedTicks - maxCatchUpTicks;
+                        skippedTicks += droppedTicks;
+                        nextDeadline += droppedTicks * periodNanos;
+                    }
+                    break;
+            }
+        }
+        nextDeadline += periodNanos;
+        tickStart = nanoTime();
+        ticks++;
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getPeriodMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(periodNanos);
+    }
+
+    public OverrunPolicy getOverrunPolicy() {
+        return overrunPolicy;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of ticks whose work ran past the next tick's deadline.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Returns the number of ticks that were dropped instead of being caught up.
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public double getMaxLatenessMillis() {
+        return maxLatenessNanos / 1e6d;
+    }
+
+    public double getAverageLatenessMillis() {
+        return (overruns == 0) ? 0 : (totalLatenessNanos / (double) overruns) / 1e6d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TickScheduler [period=%d ms, policy=%s, ticks=%d, overruns=%d, skipped=%d, max lateness=%.1f ms, avg lateness=%.1f ms]",
+                getPeriodMillis(), overrunPolicy, ticks, overruns, skippedTicks, getMaxLatenessMillis(), getAverageLatenessMillis());
+    }
+
+}
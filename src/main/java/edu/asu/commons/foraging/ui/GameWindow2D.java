@@ -544,6 +544,10 @@ public class GameWindow2D implements GameWindow {
                 if (keyReleased) {
                     channel.handle(event);
                     keyReleased = false;
+                    if (event instanceof ClientMovementRequest) {
+                        // the move is predicted locally, show it without waiting for the server
+                        subjectView.repaint();
+                    }
                 }
             }
         };
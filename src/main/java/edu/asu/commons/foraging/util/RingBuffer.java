@@ -0,0 +1,97 @@
+package edu.asu.commons.foraging.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Every slot carries a sequence number: a producer
+ * claims the next position with a CAS on the tail and publishes its element by advancing the slot's sequence, the
+ * consumer takes an element once its slot's sequence shows it has been published. offer() never blocks, it returns
+ * false when the buffer is full and leaves it to the caller to decide how to apply backpressure.
+ *
+ * poll() must only be called from one thread at a time.
+ */
+public class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Creates a buffer holding at least the given number of elements, rounded up to a power of two.
+     */
+    public RingBuffer(int minimumCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minimumCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            }
+            else if (available < 0) {
+                // the consumer hasn't freed this slot from the previous lap yet
+                return false;
+            }
+            // otherwise another producer claimed this position first, try the next one
+        }
+    }
+
+    /**
+     * Returns the next published element or null if there is none yet.
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Returns the total number of elements offered so far, including ones still being published.
+     */
+    public long getOffered() {
+        return tail.get();
+    }
+
+    /**
+     * Returns the total number of elements polled so far.
+     */
+    public long getPolled() {
+        return head;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,151 @@
+package edu.asu.commons.foraging.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.event.EventTypeChannel;
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
+import edu.asu.commons.foraging.event.ResourceDiff;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class ClientDataModelTest {
+
+    private final static Point START = new Point(3, 3);
+    private final static Point OTHER_START = new Point(5, 3);
+    // the cell right of START
+    private final static Point TOKEN = new Point(4, 3);
+
+    private final Identifier id = new Identifier.Mock();
+    // another member of the group, only known from the updates
+    private final Identifier other = new Identifier.Mock();
+    private ClientDataModel dataModel;
+    private long version;
+
+    @Before
+    public void setUp() {
+        RoundConfiguration roundConfiguration = new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters();
+        ServerDataModel serverDataModel = new ServerDataModel();
+        serverDataModel.setRoundConfiguration(roundConfiguration);
+        ClientData data = new ClientData(id);
+        serverDataModel.addClient(data);
+        dataModel = new ClientDataModel(new EventTypeChannel()) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Identifier getId() {
+                return id;
+            }
+        };
+        dataModel.setRoundConfiguration(roundConfiguration);
+        dataModel.initialize(data.getGroupDataModel());
+        dataModel.getClientData().setExplicitCollectionMode(false);
+        // start from a known state with a single token right of this participant
+        dataModel.update(snapshot(START, 0, OTHER_START, 0, 0, new Resource(TOKEN)));
+        assertEquals(START, dataModel.getCurrentPosition());
+        assertTrue(dataModel.getResourcePositions().contains(TOKEN));
+    }
+
+    @Test
+    public void testRejectedMove() {
+        dataModel.predictMove(Direction.RIGHT);
+        assertEquals(TOKEN, dataModel.getCurrentPosition());
+        assertFalse("the predicted move picks up the token", dataModel.getResourcePositions().contains(TOKEN));
+        // the server applied the move without moving this participant, e.g., because it was frozen
+        dataModel.update(update(START, 0, OTHER_START, 0, 1));
+        assertEquals(START, dataModel.getCurrentPosition());
+        assertEquals(0, dataModel.getNumberOfPredictedMoves());
+        assertTrue("the provisional pickup is put back", dataModel.getResourcePositions().contains(TOKEN));
+        assertEquals(0, dataModel.getCurrentTokens());
+    }
+
+    @Test
+    public void testContestedTokenRolledBack() {
+        dataModel.predictMove(Direction.RIGHT);
+        assertFalse(dataModel.getResourcePositions().contains(TOKEN));
+        // the other participant collected the token and moved on before the server applied this participant's move
+        Point otherPosition = new Point(TOKEN.x, TOKEN.y + 1);
+        dataModel.update(update(START, 0, otherPosition, 1, 0, new Resource(TOKEN)));
+        assertEquals("the unacknowledged move is replayed", TOKEN, dataModel.getCurrentPosition());
+        assertEquals(1, dataModel.getNumberOfPredictedMoves());
+        assertEquals(1, dataModel.getCurrentTokens(other));
+        assertFalse(dataModel.getResourcePositions().contains(TOKEN));
+        // the move is applied without a token, the rolled back pickup must not reappear
+        dataModel.update(update(TOKEN, 0, otherPosition, 1, 1));
+        assertEquals(TOKEN, dataModel.getCurrentPosition());
+        assertEquals(0, dataModel.getNumberOfPredictedMoves());
+        assertEquals(0, dataModel.getCurrentTokens());
+        assertFalse(dataModel.getResourcePositions().contains(TOKEN));
+    }
+
+    @Test
+    public void testReplayAfterPartialAcknowledgement() {
+        for (int i = 0; i < 3; i++) {
+            dataModel.predictMove(Direction.DOWN);
+        }
+        assertEquals(new Point(START.x, START.y + 3), dataModel.getCurrentPosition());
+        // the server has applied the first move only
+        dataModel.update(synchronize(new Point(START.x, START.y + 1), 0, OTHER_START, 0, 1));
+        assertEquals(2, dataModel.getNumberOfPredictedMoves());
+        assertEquals("only the unacknowledged moves are replayed", new Point(START.x, START.y + 3), dataModel.getCurrentPosition());
+        dataModel.update(update(new Point(START.x, START.y + 2), 0, OTHER_START, 0, 2));
+        assertEquals(1, dataModel.getNumberOfPredictedMoves());
+        assertEquals(new Point(START.x, START.y + 3), dataModel.getCurrentPosition());
+        dataModel.update(update(new Point(START.x, START.y + 3), 0, OTHER_START, 0, 3));
+        assertEquals(0, dataModel.getNumberOfPredictedMoves());
+        assertEquals(new Point(START.x, START.y + 3), dataModel.getCurrentPosition());
+    }
+
+    private SynchronizeGroupStateEvent snapshot(Point position, int tokens, Point otherPosition, int otherTokens,
+            long lastInputSequence, Resource... resources) {
+        return new SynchronizeGroupStateEvent(id, ++version, SynchronizeGroupStateEvent.SNAPSHOT, ResourceDiff.of(resources),
+                ResourceDiff.EMPTY, tokens(tokens, otherTokens), positions(position, otherPosition), 60000L, lastInputSequence);
+    }
+
+    private SynchronizeGroupStateEvent synchronize(Point position, int tokens, Point otherPosition, int otherTokens,
+            long lastInputSequence) {
+        long baseVersion = version;
+        return new SynchronizeGroupStateEvent(id, ++version, baseVersion, ResourceDiff.EMPTY, ResourceDiff.EMPTY,
+                tokens(tokens, otherTokens), positions(position, otherPosition), 60000L, lastInputSequence);
+    }
+
+    private ClientPositionUpdateEvent update(Point position, int tokens, Point otherPosition, int otherTokens,
+            long lastInputSequence, Resource... removedResources) {
+        // the server's state for this participant
+        ClientData data = new ClientData(id);
+        data.setLastInputSequence(lastInputSequence);
+        GroupUpdateFrame frame = new GroupUpdateFrame(++version, new Resource[0], removedResources,
+                tokens(tokens, otherTokens), positions(position, otherPosition));
+        return new ClientPositionUpdateEvent(data, frame, 60000L);
+    }
+
+    private Map<Identifier, Point> positions(Point position, Point otherPosition) {
+        Map<Identifier, Point> positions = new HashMap<>();
+        positions.put(id, new Point(position));
+        positions.put(other, new Point(otherPosition));
+        return positions;
+    }
+
+    private Map<Identifier, Integer> tokens(int tokens, int otherTokens) {
+        Map<Identifier, Integer> clientTokens = new HashMap<>();
+        clientTokens.put(id, tokens);
+        clientTokens.put(other, otherTokens);
+        return clientTokens;
+    }
+
+}
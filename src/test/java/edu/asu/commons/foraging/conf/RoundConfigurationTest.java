@@ -60,4 +60,14 @@ public class RoundConfigurationTest {
         // assertTrue(debriefing.contains(formatter.format(totalEarnings)));
     }
 
+    @Test
+    public void testFieldOfVisionMarginCoversPredictedMoves() {
+        assertEquals(RoundConfiguration.DEFAULT_MAX_PREDICTED_MOVES, roundConfiguration.getMaxPredictedMoves());
+        assertEquals(roundConfiguration.getMaxPredictedMoves(), roundConfiguration.getFieldOfVisionMargin());
+        roundConfiguration.getProperties().setProperty("max-predicted-moves", "4");
+        assertEquals(4, roundConfiguration.getFieldOfVisionMargin());
+        roundConfiguration.getProperties().setProperty("field-of-vision-margin", "2");
+        assertEquals(2, roundConfiguration.getFieldOfVisionMargin());
+    }
+
 }
@@ -0,0 +1,126 @@
+package edu.asu.commons.foraging.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ColumnarRoundDataTest {
+
+    private final static long[] TIMES = { 1000L, 1010L, 1010L, 1250L, 1300L, 1400L };
+    private final static int[] ACTORS = { 0, 0, -1, 1, 1, 0 };
+    private final static int[] GROUPS = { 0, 0, 0, 1, 1, 0 };
+    private final static byte[] TYPES = { ColumnarRoundData.MOVEMENT, ColumnarRoundData.TOKEN_COLLECTED,
+            ColumnarRoundData.RESOURCE_ADDED, ColumnarRoundData.CHAT, ColumnarRoundData.SANCTION_APPLIED, ColumnarRoundData.OTHER };
+    private final static int[] XS = { 3, 3, 7, 4, 4, -1 };
+    private final static int[] YS = { 5, 5, 2, 9, 9, -1 };
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] bytes = createRound(ColumnarRoundData.MAGIC, ColumnarRoundData.FORMAT_VERSION);
+        ColumnarRoundData data = ColumnarRoundData.read(new ByteArrayInputStream(bytes));
+        assertRound(data);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        data.write(written);
+        assertArrayEquals(bytes, written.toByteArray());
+        assertRound(ColumnarRoundData.read(new ByteArrayInputStream(written.toByteArray())));
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        assertCorrupt(createRound(0x12345678, ColumnarRoundData.FORMAT_VERSION));
+        assertCorrupt(createRound(ColumnarRoundData.MAGIC, (short) (ColumnarRoundData.FORMAT_VERSION + 1)));
+        byte[] bytes = createRound(ColumnarRoundData.MAGIC, ColumnarRoundData.FORMAT_VERSION);
+        // a negative row count
+        bytes[6] = (byte) 0xFF;
+        assertCorrupt(bytes);
+    }
+
+    private void assertCorrupt(byte[] bytes) throws IOException {
+        try {
+            ColumnarRoundData.read(new ByteArrayInputStream(bytes));
+            fail("read a corrupt round");
+        } catch (StreamCorruptedException expected) {
+        }
+    }
+
+    private void assertRound(ColumnarRoundData data) {
+        int rows = TIMES.length;
+        assertEquals(rows, data.size());
+        assertArrayEquals(TIMES, Arrays.copyOf(data.getTimes(), rows));
+        assertArrayEquals(ACTORS, Arrays.copyOf(data.getActors(), rows));
+        assertArrayEquals(GROUPS, Arrays.copyOf(data.getGroups(), rows));
+        assertArrayEquals(TYPES, Arrays.copyOf(data.getTypes(), rows));
+        assertArrayEquals(XS, Arrays.copyOf(data.getXs(), rows));
+        assertArrayEquals(YS, Arrays.copyOf(data.getYs(), rows));
+
+        assertEquals(2, data.getNumberOfActors());
+        assertEquals("participant 1", data.getActorId(0));
+        assertEquals(0, data.getActorGroup(0));
+        assertEquals("participant 2", data.getActorId(1));
+        assertEquals(1, data.getActorGroup(1));
+
+        assertEquals(1, data.getChatMessages().size());
+        ColumnarRoundData.ChatMessage message = data.getChatMessages().get(0);
+        assertEquals(3, message.getRow());
+        assertEquals(-1, message.getTarget());
+        assertEquals("hello, everyone", message.getMessage());
+
+        assertEquals(1, data.getSanctions().size());
+        ColumnarRoundData.Sanction sanction = data.getSanctions().get(0);
+        assertEquals(4, sanction.getRow());
+        assertEquals(0, sanction.getTarget());
+        assertEquals(1, sanction.getCost());
+        assertEquals(2, sanction.getPenalty());
+    }
+
+    /**
+     * Writes a round with the given header in the documented layout, independently of ColumnarRoundData.write.
+     */
+    private byte[] createRound(int magic, short formatVersion) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(magic);
+        out.writeShort(formatVersion);
+        out.writeInt(TIMES.length);
+        out.writeInt(2);
+        out.writeUTF("participant 1");
+        out.writeInt(0);
+        out.writeUTF("participant 2");
+        out.writeInt(1);
+        for (long time : TIMES) {
+            out.writeLong(time);
+        }
+        writeInts(out, ACTORS);
+        writeInts(out, GROUPS);
+        out.write(TYPES);
+        writeInts(out, XS);
+        writeInts(out, YS);
+        out.writeInt(1);
+        out.writeInt(3);
+        out.writeInt(-1);
+        out.writeUTF("hello, everyone");
+        out.writeInt(1);
+        out.writeInt(4);
+        out.writeInt(0);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeInts(DataOutputStream out, int[] column) throws IOException {
+        for (int value : column) {
+            out.writeInt(value);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package edu.asu.commons.foraging.event;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class ClientPositionUpdateEventTest {
+
+    private ClientData clientData;
+
+    @Before
+    public void setUp() {
+        ServerDataModel serverDataModel = new ServerDataModel();
+        serverDataModel.setRoundConfiguration(new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters());
+        clientData = new ClientData(new Identifier.Mock());
+        serverDataModel.addClient(clientData);
+    }
+
+    @Test
+    public void testMergeNetDiff() {
+        // the first update adds (1, 1) and (2, 1) and removes (5, 5), the second one collects (1, 1) and regrows (5, 5)
+        clientData.addToken(new Point(7, 7));
+        clientData.setLastInputSequence(3);
+        ClientPositionUpdateEvent earlier = createUpdate(1,
+                new Resource[] { new Resource(1, 1, 1), new Resource(2, 1, 1) },
+                new Resource[] { new Resource(5, 5, 4) },
+                4, new Point(5, 5), 9000);
+        clientData.clearCollectedTokens();
+        clientData.addToken(new Point(1, 1));
+        clientData.setLastInputSequence(5);
+        ClientPositionUpdateEvent later = createUpdate(2,
+                new Resource[] { new Resource(5, 5, 1) },
+                new Resource[] { new Resource(1, 1, 1) },
+                5, new Point(1, 1), 8800);
+
+        ClientPositionUpdateEvent merged = earlier.merge(later);
+        assertEquals(clientData.getId(), merged.getId());
+        assertEquals(positions(new Point(2, 1), new Point(5, 5)), positions(merged.getAddedTokens()));
+        assertEquals(positions(new Point(5, 5), new Point(1, 1)), positions(merged.getRemovedTokens()));
+        // clients remove tokens before adding them, so the net effect is (2, 1) and (5, 5) present and (1, 1) gone
+        Set<Point> board = applyTo(positions(new Point(5, 5)), merged);
+        assertEquals(positions(new Point(2, 1), new Point(5, 5)), board);
+        assertEquals(board, applyTo(applyTo(positions(new Point(5, 5)), earlier), later));
+        assertEquals(5, merged.getCurrentTokens());
+        assertEquals(new Point(1, 1), merged.getClientPosition());
+        assertEquals(8800, merged.getTimeLeft());
+        assertEquals(5, merged.getLastInputSequence());
+        assertEquals(1, merged.getFrame().getFirstVersion());
+        assertEquals(2, merged.getFrame().getVersion());
+        assertArrayEquals(new Point[] { new Point(7, 7), new Point(1, 1) }, merged.getCollectedTokenPositions());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        clientData.addToken(new Point(3, 4));
+        clientData.setLastInputSequence(17);
+        ClientPositionUpdateEvent event = createUpdate(12,
+                new Resource[] { new Resource(1, 1, 1) }, new Resource[0], 2, new Point(3, 4), 1000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+        ClientPositionUpdateEvent decoded;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            decoded = (ClientPositionUpdateEvent) in.readObject();
+        }
+        assertEquals(positions(new Point(1, 1)), positions(decoded.getAddedTokens()));
+        assertEquals(0, decoded.getRemovedTokens().length);
+        assertEquals(2, decoded.getCurrentTokens());
+        assertEquals(new Point(3, 4), decoded.getClientPosition());
+        assertEquals(1000, decoded.getTimeLeft());
+        assertEquals(17, decoded.getLastInputSequence());
+        assertEquals(12, decoded.getFrame().getVersion());
+        assertArrayEquals(new Point[] { new Point(3, 4) }, decoded.getCollectedTokenPositions());
+        assertEquals(0, decoded.getLatestSanctions().size());
+    }
+
+    private ClientPositionUpdateEvent createUpdate(long version, Resource[] added, Resource[] removed, int tokens, Point position,
+            long timeLeft) {
+        Map<Identifier, Integer> clientTokens = new HashMap<>();
+        clientTokens.put(clientData.getId(), tokens);
+        Map<Identifier, Point> clientPositions = new HashMap<>();
+        clientPositions.put(clientData.getId(), position);
+        GroupUpdateFrame frame = new GroupUpdateFrame(version, added, removed, clientTokens, clientPositions);
+        return new ClientPositionUpdateEvent(clientData, frame, timeLeft);
+    }
+
+    private static Set<Point> applyTo(Set<Point> board, ClientPositionUpdateEvent event) {
+        Set<Point> result = new HashSet<>(board);
+        result.removeAll(positions(event.getRemovedTokens()));
+        result.addAll(positions(event.getAddedTokens()));
+        return result;
+    }
+
+    private static Set<Point> positions(Resource... resources) {
+        Set<Point> set = new HashSet<>();
+        for (Resource resource : resources) {
+            set.add(resource.getPosition());
+        }
+        return set;
+    }
+
+    private static Set<Point> positions(Point... points) {
+        Set<Point> set = new HashSet<>();
+        for (Point point : points) {
+            set.add(point);
+        }
+        return set;
+    }
+
+}
@@ -0,0 +1,61 @@
+package edu.asu.commons.foraging.event;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+import edu.asu.commons.foraging.bot.Bot;
+import edu.asu.commons.foraging.bot.BotType;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class GroupStateCheckpointTest {
+
+    @Test
+    public void testRestoreClientsAndBots() throws Exception {
+        ServerDataModel serverDataModel = new ServerDataModel();
+        serverDataModel.setRoundConfiguration(new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters());
+        ClientData clientData = new ClientData(new Identifier.Mock());
+        serverDataModel.addClient(clientData);
+        GroupDataModel group = clientData.getGroupDataModel();
+        group.addBots(1, BotType.RANDOM);
+        Bot bot = group.getBotMap().values().iterator().next();
+        clientData.setPosition(new Point(2, 3));
+        clientData.setCurrentTokens(4);
+        bot.setCurrentPosition(new Point(5, 6));
+        bot.addToken(new Point(5, 6));
+        bot.addToken(new Point(5, 7));
+
+        GroupStateCheckpoint checkpoint = copy(new GroupStateCheckpoint(serverDataModel));
+        clientData.setPosition(new Point(0, 0));
+        clientData.setCurrentTokens(0);
+        bot.setCurrentPosition(new Point(0, 0));
+        bot.setCurrentTokens(0);
+        checkpoint.restore(serverDataModel);
+
+        assertEquals(new Point(2, 3), clientData.getPoint());
+        assertEquals(4, clientData.getCurrentTokens());
+        assertEquals(new Point(5, 6), bot.getPosition());
+        assertEquals(2, bot.getCurrentTokens());
+    }
+
+    private GroupStateCheckpoint copy(GroupStateCheckpoint checkpoint) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(checkpoint);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (GroupStateCheckpoint) in.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package edu.asu.commons.foraging.event;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.net.Identifier;
+
+public class GroupUpdateFrameTest {
+
+    private Identifier first;
+    private Identifier second;
+    private GroupUpdateFrame frame;
+
+    @Before
+    public void setUp() {
+        first = new Identifier.Mock();
+        second = new Identifier.Mock();
+        Map<Identifier, Integer> clientTokens = new HashMap<>();
+        clientTokens.put(first, 3);
+        clientTokens.put(second, 7);
+        Map<Identifier, Point> clientPositions = new HashMap<>();
+        clientPositions.put(first, new Point(1, 2));
+        clientPositions.put(second, new Point(20, 10));
+        Resource[] added = { new Resource(5, 5, 1), new Resource(6, 5, 1), new Resource(0, 12, 1) };
+        Resource[] removed = { new Resource(1, 2, 3) };
+        frame = new GroupUpdateFrame(42, added, removed, clientTokens, clientPositions);
+    }
+
+    @Test
+    public void testEncodedOnce() {
+        byte[] encoded = frame.getEncoded();
+        assertSame(encoded, frame.getEncoded());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        GroupUpdateFrame decoded = roundTrip(frame);
+        assertFrameEquals(frame, decoded);
+        // a decoded frame is sent on as is without being encoded again
+        assertSame(decoded.getEncoded(), decoded.getEncoded());
+        assertArrayEquals(frame.getEncoded(), decoded.getEncoded());
+    }
+
+    @Test
+    public void testSharedFrameRoundTrip() throws Exception {
+        // position updates for all members of a group share a frame, every copy has to decode to the same update
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(frame);
+            out.reset();
+            out.writeObject(frame);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertFrameEquals(frame, (GroupUpdateFrame) in.readObject());
+            assertFrameEquals(frame, (GroupUpdateFrame) in.readObject());
+        }
+    }
+
+    @Test
+    public void testEmptyFrameRoundTrip() throws Exception {
+        GroupUpdateFrame empty = new GroupUpdateFrame(new Resource[0], null, new HashMap<Identifier, Integer>(),
+                new HashMap<Identifier, Point>());
+        GroupUpdateFrame decoded = roundTrip(empty);
+        assertFrameEquals(empty, decoded);
+        assertEquals(0, decoded.getVersion());
+    }
+
+    @Test
+    public void testMergedFrameRoundTrip() throws Exception {
+        Map<Identifier, Integer> clientTokens = new HashMap<>();
+        clientTokens.put(first, 4);
+        Map<Identifier, Point> clientPositions = new HashMap<>();
+        clientPositions.put(first, new Point(5, 5));
+        Resource[] added = { new Resource(1, 2, 1) };
+        Resource[] removed = { new Resource(5, 5, 1) };
+        GroupUpdateFrame later = new GroupUpdateFrame(43, added, removed, clientTokens, clientPositions);
+        GroupUpdateFrame merged = frame.merge(later);
+        assertEquals(42, merged.getFirstVersion());
+        assertEquals(43, merged.getVersion());
+        assertEquals(positions(new Resource(6, 5, 1), new Resource(0, 12, 1), new Resource(1, 2, 1)), positions(merged.getAddedResources()));
+        assertEquals(positions(new Resource(1, 2, 3), new Resource(5, 5, 1)), positions(merged.getRemovedResources()));
+        assertEquals(clientTokens, merged.getClientTokens());
+        GroupUpdateFrame decoded = roundTrip(merged);
+        assertFrameEquals(merged, decoded);
+        assertEquals(42, decoded.getFirstVersion());
+    }
+
+    private GroupUpdateFrame roundTrip(GroupUpdateFrame frame) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(frame);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (GroupUpdateFrame) in.readObject();
+        }
+    }
+
+    private void assertFrameEquals(GroupUpdateFrame expected, GroupUpdateFrame actual) {
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getFirstVersion(), actual.getFirstVersion());
+        assertEquals(resources(expected.getAddedResources()), resources(actual.getAddedResources()));
+        assertEquals(resources(expected.getRemovedResources()), resources(actual.getRemovedResources()));
+        assertEquals(expected.getClientTokens(), actual.getClientTokens());
+        assertEquals(expected.getClientPositions(), actual.getClientPositions());
+    }
+
+    private static Set<String> resources(Resource... resources) {
+        Set<String> set = new HashSet<>();
+        for (Resource resource : resources) {
+            set.add(resource.getPosition() + " age " + resource.getAge());
+        }
+        return set;
+    }
+
+    private static Set<Point> positions(Resource... resources) {
+        Set<Point> set = new HashSet<>();
+        for (Resource resource : resources) {
+            set.add(resource.getPosition());
+        }
+        return set;
+    }
+
+}
@@ -0,0 +1,245 @@
+package edu.asu.commons.foraging.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.asu.commons.foraging.model.Resource;
+
+public class ResourceDiffTest {
+
+    // encoding tags, see ResourceDiff.write
+    private final static int LIST = 0;
+    private final static int RUNS = 1;
+    private final static int BITMAP = 2;
+
+    private final static int BOARD_SIZE = 28;
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertSame(ResourceDiff.EMPTY, ResourceDiff.of(new Resource[0]));
+        assertSame(ResourceDiff.EMPTY, ResourceDiff.of((Resource[]) null));
+        byte[] encoded = encode(ResourceDiff.EMPTY);
+        assertEquals(1, encoded.length);
+        ResourceDiff decoded = decode(encoded);
+        assertTrue(decoded.isEmpty());
+        assertEquals(0, decoded.toResources().length);
+    }
+
+    @Test
+    public void testSingleCell() throws IOException {
+        ResourceDiff diff = ResourceDiff.of(new Resource[] { new Resource(13, 27, 1) });
+        byte[] encoded = encode(diff);
+        assertEquals(LIST, getEncoding(encoded));
+        assertRoundTrip(diff);
+    }
+
+    @Test
+    public void testList() throws IOException {
+        ResourceDiff diff = ResourceDiff.of(new Resource[] { new Resource(0, 0, 1), new Resource(27, 27, 1), new Resource(14, 3, 1) });
+        assertEquals(LIST, getEncoding(encode(diff)));
+        assertRoundTrip(diff);
+    }
+
+    @Test
+    public void testRuns() throws IOException {
+        // a streak across the top row and part of another
+        List<Resource> resources = new ArrayList<>();
+        for (int x = 0; x < BOARD_SIZE; x++) {
+            resources.add(new Resource(x, 0, 1));
+        }
+        for (int x = 5; x < 15; x++) {
+            resources.add(new Resource(x, 20, 1));
+        }
+        ResourceDiff diff = ResourceDiff.of(resources);
+        assertEquals(RUNS, getEncoding(encode(diff)));
+        assertRoundTrip(diff);
+    }
+
+    @Test
+    public void testBitmap() throws IOException {
+        // a dense checkerboard has no runs and a small bounding box
+        List<Resource> resources = new ArrayList<>();
+        for (int y = 10; y < 20; y++) {
+            for (int x = 10; x < 20; x++) {
+                if ((x + y) % 2 == 0) {
+                    resources.add(new Resource(x, y, 1));
+                }
+            }
+        }
+        ResourceDiff diff = ResourceDiff.of(resources);
+        assertEquals(BITMAP, getEncoding(encode(diff)));
+        assertRoundTrip(diff);
+    }
+
+    @Test
+    public void testFullBoard() throws IOException {
+        List<Resource> resources = new ArrayList<>();
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                resources.add(new Resource(x, y, 1));
+            }
+        }
+        ResourceDiff diff = ResourceDiff.of(resources);
+        byte[] encoded = encode(diff);
+        // one run per row beats a bitmap of the whole board
+        assertEquals(RUNS, getEncoding(encoded));
+        assertTrue(encoded.length < BOARD_SIZE * BOARD_SIZE / 8);
+        assertRoundTrip(diff);
+    }
+
+    @Test
+    public void testPicksSmallestEncoding() throws IOException {
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            List<Resource> resources = new ArrayList<>();
+            int size = 1 + random.nextInt(BOARD_SIZE * BOARD_SIZE / (1 + random.nextInt(20)));
+            for (int j = 0; j < size; j++) {
+                resources.add(new Resource(random.nextInt(BOARD_SIZE), random.nextInt(BOARD_SIZE), 1));
+            }
+            ResourceDiff diff = ResourceDiff.of(dedupe(resources));
+            byte[] encoded = encode(diff);
+            assertRoundTrip(diff);
+            // the list encoding is always possible, the chosen one can't be larger
+            assertTrue(encoded.length <= listEncodingSize(diff));
+        }
+    }
+
+    @Test
+    public void testAges() throws IOException {
+        ResourceDiff sameAge = ResourceDiff.of(new Resource[] { new Resource(1, 1, 3), new Resource(2, 1, 3) });
+        ResourceDiff differentAges = ResourceDiff.of(new Resource[] { new Resource(1, 1, 3), new Resource(2, 1, 4) });
+        assertTrue(encode(sameAge).length < encode(differentAges).length);
+        assertRoundTrip(sameAge);
+        assertRoundTrip(differentAges);
+    }
+
+    @Test
+    public void testUnpackableCoordinates() throws IOException {
+        ResourceDiff diff = ResourceDiff.of(new Resource[] { new Resource(-3, 5, 1), new Resource(1 << 22, 2, 1), new Resource(0, 0, 1) });
+        assertEquals(LIST, getEncoding(encode(diff)));
+        assertRoundTrip(diff);
+        // unsorted diffs are filtered in full
+        assertEquals(toMap(new Resource(-3, 5, 1)), toMap(diff.select(3, 5, (x, y) -> true)));
+    }
+
+    @Test
+    public void testSelect() {
+        List<Resource> resources = new ArrayList<>();
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                resources.add(new Resource(x, y, y));
+            }
+        }
+        ResourceDiff diff = ResourceDiff.of(resources);
+        ResourceDiff selected = diff.select(3, 5, (x, y) -> x < 2);
+        assertEquals(toMap(new Resource(0, 3, 3), new Resource(1, 3, 3), new Resource(0, 4, 4), new Resource(1, 4, 4),
+                new Resource(0, 5, 5), new Resource(1, 5, 5)), toMap(selected));
+        assertEquals(BOARD_SIZE, diff.select(BOARD_SIZE - 1, BOARD_SIZE + 10, (x, y) -> true).size());
+        assertTrue(diff.select(BOARD_SIZE, BOARD_SIZE + 10, (x, y) -> true).isEmpty());
+        assertTrue(ResourceDiff.EMPTY.select(0, BOARD_SIZE, (x, y) -> true).isEmpty());
+    }
+
+    @Test
+    public void testWithout() {
+        ResourceDiff diff = ResourceDiff.of(new Resource[] { new Resource(1, 1, 1), new Resource(2, 1, 1), new Resource(3, 3, 1) });
+        ResourceDiff other = ResourceDiff.of(new Resource[] { new Resource(2, 1, 5), new Resource(9, 9, 1) });
+        assertEquals(toMap(new Resource(1, 1, 1), new Resource(3, 3, 1)), toMap(diff.without(other)));
+        assertSame(diff, diff.without(ResourceDiff.EMPTY));
+        assertTrue(ResourceDiff.EMPTY.without(diff).isEmpty());
+        assertTrue(diff.without(diff).isEmpty());
+    }
+
+    @Test
+    public void testUnion() {
+        ResourceDiff diff = ResourceDiff.of(new Resource[] { new Resource(1, 1, 1), new Resource(2, 1, 1) });
+        ResourceDiff other = ResourceDiff.of(new Resource[] { new Resource(2, 1, 5), new Resource(9, 9, 1) });
+        assertEquals(toMap(new Resource(1, 1, 1), new Resource(2, 1, 5), new Resource(9, 9, 1)), toMap(diff.union(other)));
+        assertSame(other, ResourceDiff.EMPTY.union(other));
+    }
+
+    private void assertRoundTrip(ResourceDiff diff) throws IOException {
+        ResourceDiff decoded = decode(encode(diff));
+        assertEquals(diff.size(), decoded.size());
+        assertEquals(toMap(diff), toMap(decoded));
+    }
+
+    private static byte[] encode(ResourceDiff diff) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        diff.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static ResourceDiff decode(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        ResourceDiff diff = ResourceDiff.read(in);
+        assertEquals(0, in.available());
+        return diff;
+    }
+
+    /**
+     * Returns the encoding tag, which follows the varint size.
+     */
+    private static int getEncoding(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        WireCodec.readVarInt(in);
+        return in.readUnsignedByte();
+    }
+
+    private static int listEncodingSize(ResourceDiff diff) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        WireCodec.writeVarInt(out, diff.size());
+        out.writeByte(LIST);
+        diff.forEach((x, y, age) -> {
+            try {
+                WireCodec.writeVarInt(out, x);
+                WireCodec.writeVarInt(out, y);
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        // all ages are the same
+        out.writeByte(0);
+        WireCodec.writeVarInt(out, 1);
+        return bytes.size();
+    }
+
+    private static List<Resource> dedupe(List<Resource> resources) {
+        return new ArrayList<>(toResourceMap(resources).values());
+    }
+
+    private static Map<String, Resource> toResourceMap(List<Resource> resources) {
+        Map<String, Resource> map = new HashMap<>();
+        for (Resource resource : resources) {
+            map.put(resource.getX() + "," + resource.getY(), resource);
+        }
+        return map;
+    }
+
+    private static Map<String, Integer> toMap(Resource... resources) {
+        Map<String, Integer> map = new HashMap<>();
+        for (Resource resource : resources) {
+            map.put(resource.getX() + "," + resource.getY(), resource.getAge());
+        }
+        return map;
+    }
+
+    private static Map<String, Integer> toMap(ResourceDiff diff) {
+        return toMap(diff.toResources());
+    }
+
+}
@@ -0,0 +1,137 @@
+package edu.asu.commons.foraging.event;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.net.Identifier;
+
+public class WireCodecTest {
+
+    private final static long[] VALUES = { 0, 1, -1, 63, -64, 64, -65, 127, 128, 8191, -8192, 8192, 1L << 31,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+
+    @Test
+    public void testVarLongs() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (long value : VALUES) {
+            WireCodec.writeVarLong(out, value);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (long value : VALUES) {
+            assertEquals(value, WireCodec.readVarLong(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testZigzagSizes() throws IOException {
+        // small magnitudes of either sign fit in a single byte
+        assertEquals(1, encodeVarInt(0).length);
+        assertEquals(1, encodeVarInt(-1).length);
+        assertEquals(1, encodeVarInt(63).length);
+        assertEquals(1, encodeVarInt(-64).length);
+        assertEquals(2, encodeVarInt(64).length);
+        assertEquals(2, encodeVarInt(-65).length);
+        assertEquals(5, encodeVarInt(Integer.MIN_VALUE).length);
+        assertArrayEquals(new byte[] { 1 }, encodeVarInt(-1));
+        assertArrayEquals(new byte[] { 2 }, encodeVarInt(1));
+    }
+
+    @Test
+    public void testVarIntOutOfRange() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireCodec.writeVarLong(new DataOutputStream(bytes), 1L << 40);
+        try {
+            WireCodec.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            fail("varint beyond the int range should not be read");
+        } catch (StreamCorruptedException expected) {
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testMalformedVarLong() throws IOException {
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+        WireCodec.readVarLong(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testPointsAndDirections() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        Point[] points = { new Point(0, 0), new Point(27, 13), new Point(-1, 300) };
+        WireCodec.writePoints(out, points);
+        WireCodec.writePoints(out, null);
+        WireCodec.writePoints(out, new Point[0]);
+        for (Direction direction : Direction.values()) {
+            WireCodec.writeDirection(out, direction);
+        }
+        WireCodec.writeDirection(out, null);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertArrayEquals(points, WireCodec.readPoints(in));
+        assertNull(WireCodec.readPoints(in));
+        assertEquals(0, WireCodec.readPoints(in).length);
+        for (Direction direction : Direction.values()) {
+            assertEquals(direction, WireCodec.readDirection(in));
+        }
+        assertNull(WireCodec.readDirection(in));
+    }
+
+    @Test
+    public void testClientStates() throws Exception {
+        Identifier both = new Identifier.Mock();
+        Identifier tokensOnly = new Identifier.Mock();
+        Identifier positionOnly = new Identifier.Mock();
+        Map<Identifier, Integer> clientTokens = new LinkedHashMap<>();
+        Map<Identifier, Point> clientPositions = new LinkedHashMap<>();
+        clientTokens.put(both, 12);
+        clientPositions.put(both, new Point(3, 4));
+        clientTokens.put(tokensOnly, 0);
+        clientPositions.put(positionOnly, new Point(28, 0));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            WireCodec.writeClientStates(out, clientTokens, clientPositions);
+            WireCodec.writeClientStates(out, new HashMap<Identifier, Integer>(), new HashMap<Identifier, Point>());
+        }
+        Map<Identifier, Integer> readTokens = new HashMap<>();
+        Map<Identifier, Point> readPositions = new HashMap<>();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            WireCodec.readClientStates(in, readTokens, readPositions);
+            assertEquals(clientTokens, readTokens);
+            assertEquals(clientPositions, readPositions);
+            Map<Identifier, Integer> emptyTokens = new HashMap<>();
+            Map<Identifier, Point> emptyPositions = new HashMap<>();
+            WireCodec.readClientStates(in, emptyTokens, emptyPositions);
+            assertEquals(0, emptyTokens.size());
+            assertEquals(0, emptyPositions.size());
+        }
+    }
+
+    private byte[] encodeVarInt(int value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireCodec.writeVarInt(new DataOutputStream(bytes), value);
+        return bytes.toByteArray();
+    }
+
+}
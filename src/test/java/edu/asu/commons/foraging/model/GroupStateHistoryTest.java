@@ -0,0 +1,171 @@
+package edu.asu.commons.foraging.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
+import edu.asu.commons.foraging.event.ResourceDiff;
+import edu.asu.commons.foraging.event.SynchronizeGroupStateEvent;
+import edu.asu.commons.net.Identifier;
+
+public class GroupStateHistoryTest {
+
+    private final static int CAPACITY = 3;
+
+    private ServerDataModel serverDataModel;
+    private GroupDataModel group;
+    private Identifier id;
+    private GroupStateHistory history;
+    // the group's board after every published version, index = version
+    private final List<Set<Point>> boards = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        serverDataModel = new ServerDataModel();
+        ServerConfiguration serverConfiguration = new ServerConfiguration("configuration/asu/2011/t1");
+        serverDataModel.setRoundConfiguration(serverConfiguration.getCurrentParameters());
+        ClientData clientData = new ClientData(new Identifier.Mock());
+        serverDataModel.addClient(clientData);
+        id = clientData.getId();
+        group = clientData.getGroupDataModel();
+        history = new GroupStateHistory(CAPACITY);
+        boards.add(new HashSet<Point>());
+    }
+
+    @Test
+    public void testDeltaSinceAcknowledgedVersion() {
+        publish(new Point[] { new Point(1, 1), new Point(2, 2) }, new Point[0]);
+        publish(new Point[] { new Point(3, 3) }, new Point[] { new Point(1, 1) });
+        publish(new Point[] { new Point(1, 1) }, new Point[] { new Point(2, 2) });
+        assertEquals(3, history.getVersion());
+        assertTrue(history.canCatchUp(1));
+        SynchronizeGroupStateEvent event = history.createSynchronizeEvent(id, group, 1, 1000);
+        assertFalse(event.isSnapshot());
+        assertEquals(1, event.getBaseVersion());
+        assertEquals(3, event.getVersion());
+        // (1, 1) was removed and added back, only the net change is sent
+        assertEquals(points(new Point(3, 3), new Point(1, 1)), positions(event.getAddedResources()));
+        assertEquals(points(new Point(2, 2)), positions(event.getRemovedResources()));
+        assertEquals(boards.get(3), apply(boards.get(1), event));
+        assertEquals(group.getClientPositions(), event.getClientPositions());
+    }
+
+    @Test
+    public void testUpToDate() {
+        publish(new Point[] { new Point(1, 1) }, new Point[0]);
+        assertTrue(history.canCatchUp(1));
+        SynchronizeGroupStateEvent event = history.createSynchronizeEvent(id, group, 1, 1000);
+        assertFalse(event.isSnapshot());
+        assertTrue(event.getAddedResources().isEmpty());
+        assertTrue(event.getRemovedResources().isEmpty());
+    }
+
+    @Test
+    public void testSnapshotAfterEviction() {
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            publish(new Point[] { new Point(i, i) }, new Point[0]);
+        }
+        // versions 3 through 5 are retained, only clients that applied at least version 2 can be caught up
+        assertFalse(history.canCatchUp(1));
+        assertTrue(history.canCatchUp(2));
+        SynchronizeGroupStateEvent delta = history.createSynchronizeEvent(id, group, 2, 1000);
+        assertFalse(delta.isSnapshot());
+        assertEquals(boards.get(5), apply(boards.get(2), delta));
+
+        SynchronizeGroupStateEvent snapshot = history.createSynchronizeEvent(id, group, 1, 1000);
+        assertTrue(snapshot.isSnapshot());
+        assertEquals(5, snapshot.getVersion());
+        assertEquals(boards.get(5), positions(snapshot.getAddedResources()));
+        assertTrue(snapshot.getRemovedResources().isEmpty());
+    }
+
+    @Test
+    public void testSnapshotForUnknownVersions() {
+        publish(new Point[] { new Point(1, 1) }, new Point[0]);
+        assertFalse(history.canCatchUp(-1));
+        assertFalse(history.canCatchUp(2));
+        assertTrue(history.createSynchronizeEvent(id, group, 2, 1000).isSnapshot());
+        history.clear();
+        assertEquals(1, history.getVersion());
+        assertTrue(history.canCatchUp(1));
+        assertFalse(history.canCatchUp(0));
+        assertTrue(history.createSynchronizeEvent(id, group, 0, 1000).isSnapshot());
+    }
+
+    @Test
+    public void testClientStaleVersionCheck() {
+        GroupUpdateFrame first = publish(new Point[] { new Point(1, 1) }, new Point[0]);
+        GroupUpdateFrame second = publish(new Point[] { new Point(2, 2) }, new Point[0]);
+        GroupUpdateFrame third = publish(new Point[] { new Point(3, 3) }, new Point[0]);
+        // a client that has applied version 2 skips frames up to it
+        assertTrue(first.isCoveredBy(2));
+        assertTrue(second.isCoveredBy(2));
+        assertFalse(third.isCoveredBy(2));
+        // unversioned frames are always applied
+        GroupUpdateFrame unversioned = new GroupUpdateFrame(new Resource[0], new Resource[0], group.getClientTokens(), group.getClientPositions());
+        assertFalse(unversioned.isCoveredBy(2));
+        assertFalse(unversioned.continues(2));
+        // the client only advances its version without gaps
+        assertTrue(first.continues(0));
+        assertTrue(third.continues(2));
+        assertFalse(third.continues(1));
+        assertTrue(second.merge(third).continues(1));
+        // a synchronization older than the applied version is ignored
+        SynchronizeGroupStateEvent event = history.createSynchronizeEvent(id, group, 1, 1000);
+        assertFalse(event.isStale(3));
+        assertTrue(event.isStale(4));
+        assertFalse(event.isStale(0));
+    }
+
+    private GroupUpdateFrame publish(Point[] added, Point[] removed) {
+        Set<Point> board = new HashSet<>(boards.get(boards.size() - 1));
+        Set<Resource> addedResources = new HashSet<>();
+        Set<Resource> removedResources = new HashSet<>();
+        for (Point point : removed) {
+            board.remove(point);
+            removedResources.add(new Resource(point));
+            group.removeResource(point);
+        }
+        for (Point point : added) {
+            board.add(point);
+            addedResources.add(new Resource(point));
+        }
+        group.addResources(addedResources);
+        boards.add(board);
+        return history.publish(addedResources.toArray(new Resource[0]), removedResources.toArray(new Resource[0]),
+                group.getClientTokens(), group.getClientPositions());
+    }
+
+    private static Set<Point> apply(Set<Point> board, SynchronizeGroupStateEvent event) {
+        Set<Point> result = event.isSnapshot() ? new HashSet<Point>() : new HashSet<>(board);
+        result.removeAll(positions(event.getRemovedResources()));
+        result.addAll(positions(event.getAddedResources()));
+        return result;
+    }
+
+    private static Set<Point> positions(ResourceDiff diff) {
+        Set<Point> positions = new HashSet<>();
+        diff.forEach((x, y, age) -> positions.add(new Point(x, y)));
+        return positions;
+    }
+
+    private static Set<Point> points(Point... points) {
+        Set<Point> set = new HashSet<>();
+        for (Point point : points) {
+            set.add(point);
+        }
+        return set;
+    }
+
+}
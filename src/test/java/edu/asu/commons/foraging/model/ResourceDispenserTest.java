@@ -1,9 +1,19 @@
 package edu.asu.commons.foraging.model;
 
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.asu.commons.foraging.bot.Bot;
+import edu.asu.commons.foraging.bot.BotType;
+import edu.asu.commons.foraging.conf.RoundConfiguration;
 import edu.asu.commons.foraging.conf.ServerConfiguration;
 import edu.asu.commons.net.Identifier;
 import static org.junit.Assert.*;
@@ -43,6 +53,122 @@ public class ResourceDispenserTest {
 
     }
     
+    @Test
+    public void testDensityDependentRegrowthSamplesDistinctFreeCells() {
+        ResourceDispenser.DensityDependentResourceGenerator generator =
+                (ResourceDispenser.DensityDependentResourceGenerator) resourceDispenser.getResourceGenerator(ResourceDispenser.Type.DENSITY_DEPENDENT);
+        RoundConfiguration roundConfiguration = serverConfiguration.getCurrentParameters();
+        roundConfiguration.getProperties().setProperty("regrowth-rate", "0.1");
+        generator.initialize(roundConfiguration);
+        int regrowth = 0;
+        for (GroupDataModel group : serverDataModel.getGroups()) {
+            ResourceGrid grid = group.getResourceGrid();
+            for (int tick = 0; tick < 10 && grid.getNumberOfFreeCells() > 0; tick++) {
+                Set<Point> freeCells = getFreeCells(grid);
+                int size = grid.size();
+                Set<Resource> newResources = generator.generate(group);
+                Set<Point> newPositions = new HashSet<>();
+                for (Resource resource : newResources) {
+                    assertTrue(freeCells.contains(resource.getPosition()));
+                    assertTrue(newPositions.add(resource.getPosition()));
+                }
+                assertEquals(size + newResources.size(), grid.size());
+                regrowth += newResources.size();
+            }
+        }
+        assertTrue(regrowth > 0);
+        // with a single free cell left any regrowth has to land on it
+        GroupDataModel group = serverDataModel.getOrderedGroups().get(0);
+        ResourceGrid grid = group.getResourceGrid();
+        assertTrue(grid.getNumberOfFreeCells() > 1);
+        Point lastFreeCell = grid.toPoint(grid.getFreeCell(0));
+        Set<Resource> fill = new HashSet<>();
+        for (int index = 0; index < grid.getNumberOfCells(); index++) {
+            if (! grid.contains(index) && ! grid.toPoint(index).equals(lastFreeCell)) {
+                fill.add(new Resource(grid.x(index), grid.y(index), 1));
+            }
+        }
+        serverDataModel.addResources(group, fill);
+        assertEquals(1, grid.getNumberOfFreeCells());
+        Set<Resource> lastResource = generator.generate(group);
+        assertEquals(1, lastResource.size());
+        assertEquals(lastFreeCell, lastResource.iterator().next().getPosition());
+        assertEquals(0, grid.getNumberOfFreeCells());
+        assertTrue(generator.generate(group).isEmpty());
+    }
+
+    private Set<Point> getFreeCells(ResourceGrid grid) {
+        Set<Point> freeCells = new HashSet<>();
+        for (int n = 0; n < grid.getNumberOfFreeCells(); n++) {
+            freeCells.add(grid.toPoint(grid.getFreeCell(n)));
+        }
+        return freeCells;
+    }
+
+    @Test
+    public void testTopBottomPatchGeneratorReadsIncrementalRegrowth() {
+        RoundConfiguration roundConfiguration = serverConfiguration.getCurrentParameters();
+        roundConfiguration.getProperties().setProperty("incremental-regrowth", "false");
+        ResourceDispenser.TopBottomPatchGenerator generator = resourceDispenser.getTopBottomPatchGenerator();
+        generator.initialize(roundConfiguration);
+        assertFalse(generator.isIncremental());
+        roundConfiguration.getProperties().setProperty("incremental-regrowth", "true");
+        generator.initialize(roundConfiguration);
+        assertTrue(generator.isIncremental());
+    }
+
+    @Test
+    public void testSeededRoundsAreReproducible() {
+        List<String> serial = runSeededRound(false);
+        assertEquals(serial, runSeededRound(false));
+        List<String> parallel = runSeededRound(true);
+        assertEquals(parallel, runSeededRound(true));
+        assertEquals(serial, parallel);
+        assertFalse(serial.equals(runSeededRound(false, 43)));
+    }
+
+    private List<String> runSeededRound(boolean parallelRegrowth) {
+        return runSeededRound(parallelRegrowth, 42);
+    }
+
+    /**
+     * Regrows resources and activates bots for a few ticks with the given seed, recording every group's resources and
+     * bot positions after each tick. Groups are listed in their ordered group order and bots by bot number since
+     * client identifiers differ from run to run.
+     */
+    private List<String> runSeededRound(boolean parallelRegrowth, long seed) {
+        ServerDataModel model = new ServerDataModel();
+        RoundConfiguration roundConfiguration = new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters();
+        roundConfiguration.getProperties().setProperty("random-seed", String.valueOf(seed));
+        model.setRoundConfiguration(roundConfiguration);
+        for (int i = 0; i < NUMBER_OF_CLIENTS; i++) {
+            model.addClient(new ClientData(new Identifier.Base()));
+        }
+        ResourceDispenser dispenser = new ResourceDispenser(model);
+        dispenser.initialize();
+        dispenser.setParallelRegrowth(parallelRegrowth);
+        for (GroupDataModel group : model.getOrderedGroups()) {
+            group.addBots(2, BotType.RANDOM);
+        }
+        List<String> states = new ArrayList<>();
+        for (int tick = 0; tick < 20; tick++) {
+            dispenser.generateResources();
+            for (GroupDataModel group : model.getOrderedGroups()) {
+                group.activateBots(true);
+                List<Point> resources = new ArrayList<>(group.getResourcePositions());
+                resources.sort(Comparator.<Point>comparingInt(p -> p.x).thenComparingInt(p -> p.y));
+                List<Bot> bots = new ArrayList<>(group.getBotMap().values());
+                bots.sort(Comparator.comparingInt(Bot::getBotNumber));
+                StringBuilder state = new StringBuilder().append(resources);
+                for (Bot bot : bots) {
+                    state.append(' ').append(bot.getBotNumber()).append('@').append(bot.getPosition()).append(':').append(bot.getCurrentTokens());
+                }
+                states.add(state.toString());
+            }
+        }
+        return states;
+    }
+
     @After
     public void tearDown() {
         
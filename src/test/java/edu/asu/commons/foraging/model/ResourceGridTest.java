@@ -0,0 +1,181 @@
+package edu.asu.commons.foraging.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceGridTest {
+
+    private final static int WIDTH = 37;
+    private final static int HEIGHT = 29;
+
+    private ResourceGrid grid;
+
+    @Before
+    public void setUp() {
+        grid = new ResourceGrid(WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void testAddRemove() {
+        assertTrue(grid.add(3, 4, 2));
+        assertFalse(grid.add(3, 4, 5));
+        assertEquals(1, grid.size());
+        assertTrue(grid.contains(3, 4));
+        assertEquals(5, grid.getAge(3, 4));
+        assertFalse(grid.add(-1, 0, 0));
+        assertFalse(grid.contains(WIDTH, 0));
+        assertTrue(grid.remove(3, 4));
+        assertFalse(grid.remove(3, 4));
+        assertTrue(grid.isEmpty());
+    }
+
+    @Test
+    public void testNeighborCounts() {
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                grid.add(x, y, 0);
+            }
+        }
+        assertEquals(8, grid.countNeighbors(5, 5));
+        assertEquals(3, grid.countNeighbors(0, 0));
+        assertEquals(5, grid.countNeighbors(0, 5));
+        assertEquals(3, grid.countValidNeighbors(WIDTH - 1, HEIGHT - 1));
+        assertEquals(5, grid.countValidNeighbors(WIDTH - 1, 5));
+        assertEquals(8, grid.countValidNeighbors(5, 5));
+        grid.remove(4, 4);
+        assertEquals(7, grid.countNeighbors(5, 5));
+    }
+
+    @Test
+    public void testOccupiedIteration() {
+        Random random = new Random(0);
+        Set<Point> expected = new HashSet<>();
+        while (expected.size() < 200) {
+            Point point = new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+            expected.add(point);
+            grid.add(point.x, point.y, 0);
+        }
+        Set<Point> actual = new HashSet<>();
+        for (int index = grid.nextOccupied(0); index >= 0; index = grid.nextOccupied(index + 1)) {
+            actual.add(grid.toPoint(index));
+        }
+        assertEquals(expected, actual);
+        for (int n = 0; n < grid.size(); n++) {
+            assertTrue(expected.contains(grid.toPoint(grid.nthOccupied(n))));
+        }
+        assertEquals(-1, grid.nthOccupied(grid.size()));
+    }
+
+    @Test
+    public void testFrontier() {
+        assertEquals(0, grid.getFrontierSize());
+        grid.add(0, 0, 0);
+        assertEquals(3, grid.getFrontierSize());
+        grid.add(5, 5, 0);
+        assertEquals(11, grid.getFrontierSize());
+        assertTrue(grid.isFrontier(grid.index(4, 4)));
+        assertFalse(grid.isFrontier(grid.index(5, 5)));
+        grid.add(4, 4, 0);
+        assertFalse(grid.isFrontier(grid.index(4, 4)));
+        assertEquals(2, grid.countNeighbors(4, 5));
+        grid.remove(5, 5);
+        assertTrue(grid.isFrontier(grid.index(5, 5)));
+        assertEquals(0, grid.countNeighbors(6, 6));
+        assertFalse(grid.isFrontier(grid.index(6, 6)));
+        int frontierCells = 0;
+        for (int index = grid.nextFrontier(0); index >= 0; index = grid.nextFrontier(index + 1)) {
+            assertFalse(grid.contains(index));
+            assertTrue(grid.countNeighbors(index) > 0);
+            frontierCells++;
+        }
+        assertEquals(grid.getFrontierSize(), frontierCells);
+    }
+
+    @Test
+    public void testBoxSumMatchesIncrementalNeighborCounts() {
+        Random random = new Random(0);
+        for (int i = 0; i < 300; i++) {
+            grid.add(random.nextInt(WIDTH), random.nextInt(HEIGHT), 0);
+        }
+        int numberOfCells = grid.getNumberOfCells();
+        int[] counts = grid.computeNeighborCounts(new int[numberOfCells], new int[numberOfCells]);
+        for (int index = 0; index < numberOfCells; index++) {
+            assertEquals(grid.countNeighbors(index), counts[index]);
+        }
+    }
+
+    @Test
+    public void testNearest() {
+        assertEquals(-1, grid.nearest(0, 0));
+        grid.add(10, 10, 0);
+        grid.add(2, 3, 0);
+        assertEquals(new Point(2, 3), grid.toPoint(grid.nearest(0, 0)));
+        assertEquals(new Point(10, 10), grid.toPoint(grid.nearest(9, 12)));
+    }
+
+    @Test
+    public void testFreeCells() {
+        int numberOfCells = grid.getNumberOfCells();
+        assertFreeCells(Collections.<Integer>emptySet());
+        Random random = new Random(0);
+        Set<Integer> occupied = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            int index = grid.index(x, y);
+            if (random.nextInt(3) == 0) {
+                assertEquals(occupied.remove(index), grid.remove(x, y));
+            }
+            else {
+                assertEquals(occupied.add(index), grid.add(x, y, 0));
+            }
+            if (i % 250 == 0) {
+                assertFreeCells(occupied);
+            }
+        }
+        assertFreeCells(occupied);
+        // fill and empty the whole board
+        for (int index = 0; index < numberOfCells; index++) {
+            grid.add(grid.x(index), grid.y(index), 0);
+            occupied.add(index);
+        }
+        assertEquals(0, grid.getNumberOfFreeCells());
+        assertFreeCells(occupied);
+        grid.remove(3, 4);
+        occupied.remove(grid.index(3, 4));
+        assertEquals(1, grid.getNumberOfFreeCells());
+        assertEquals(grid.index(3, 4), grid.getFreeCell(0));
+        grid.clear();
+        assertEquals(numberOfCells, grid.getNumberOfFreeCells());
+        assertFreeCells(Collections.<Integer>emptySet());
+        grid.add(1, 1, 0);
+        assertFreeCells(Collections.singleton(grid.index(1, 1)));
+    }
+
+    /**
+     * Checks that the free cell index holds exactly the cells that aren't occupied, each of them once.
+     */
+    private void assertFreeCells(Set<Integer> occupied) {
+        int numberOfFreeCells = grid.getNumberOfFreeCells();
+        assertEquals(grid.getNumberOfCells() - occupied.size(), numberOfFreeCells);
+        assertEquals(occupied.size(), grid.size());
+        Set<Integer> free = new HashSet<>();
+        for (int n = 0; n < numberOfFreeCells; n++) {
+            int index = grid.getFreeCell(n);
+            assertFalse(grid.contains(index));
+            assertFalse(occupied.contains(index));
+            assertTrue(free.add(index));
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package edu.asu.commons.foraging.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.event.Event;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.ClientPositionUpdateEvent;
+import edu.asu.commons.foraging.event.GroupUpdateFrame;
+import edu.asu.commons.foraging.event.HeartbeatEvent;
+import edu.asu.commons.foraging.event.SynchronizeClientEvent;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class ClientOutboxTest {
+
+    private final static int CAPACITY = 4;
+
+    private ClientData clientData;
+    private final List<Event> sent = new CopyOnWriteArrayList<>();
+    private final Set<Identifier> resyncs = new HashSet<>();
+    // the sender blocks on the first event until released, so that the following events stay queued
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private ClientOutbox outbox;
+
+    @Before
+    public void setUp() {
+        ServerDataModel serverDataModel = new ServerDataModel();
+        serverDataModel.setRoundConfiguration(new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters());
+        clientData = new ClientData(new Identifier.Mock());
+        serverDataModel.addClient(clientData);
+        outbox = new ClientOutbox(event -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(event);
+        }, CAPACITY, resyncs::add);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        outbox.shutdown();
+    }
+
+    @Test
+    public void testMergePendingPositionUpdates() throws Exception {
+        Identifier id = clientData.getId();
+        blockSender(id);
+        outbox.transmit(createUpdate(1, new Resource[] { new Resource(1, 1, 1), new Resource(2, 1, 1) },
+                new Resource[] { new Resource(5, 5, 1) }, 4, new Point(5, 5)));
+        outbox.transmit(createUpdate(2, new Resource[] { new Resource(5, 5, 1) }, new Resource[] { new Resource(1, 1, 1) },
+                5, new Point(1, 1)));
+        assertEquals(1, outbox.getQueueSize(id));
+        List<Event> events = awaitSent(2);
+        ClientPositionUpdateEvent merged = (ClientPositionUpdateEvent) events.get(1);
+        assertEquals(1, merged.getFrame().getFirstVersion());
+        assertEquals(2, merged.getFrame().getVersion());
+        Set<Point> board = new HashSet<>();
+        board.add(new Point(5, 5));
+        board.removeAll(positions(merged.getRemovedTokens()));
+        board.addAll(positions(merged.getAddedTokens()));
+        Set<Point> expected = new HashSet<>();
+        expected.add(new Point(2, 1));
+        expected.add(new Point(5, 5));
+        assertEquals(expected, board);
+        assertEquals(5, merged.getCurrentTokens());
+        assertEquals(new Point(1, 1), merged.getClientPosition());
+        assertTrue(resyncs.isEmpty());
+    }
+
+    @Test
+    public void testDropOldestWhenFull() throws Exception {
+        Identifier id = clientData.getId();
+        blockSender(id);
+        for (int version = 1; version <= CAPACITY; version++) {
+            outbox.transmit(new SynchronizeClientEvent(clientData, 1000, version));
+        }
+        assertEquals(CAPACITY, outbox.getQueueSize(id));
+        assertTrue(resyncs.isEmpty());
+        outbox.transmit(new SynchronizeClientEvent(clientData, 1000, CAPACITY + 1));
+        assertEquals(CAPACITY, outbox.getQueueSize(id));
+        assertEquals(Collections.singleton(id), resyncs);
+        List<Event> events = awaitSent(CAPACITY + 1);
+        List<Long> versions = new ArrayList<>();
+        for (Event event : events.subList(1, events.size())) {
+            versions.add(((SynchronizeClientEvent) event).getStateVersion());
+        }
+        assertEquals(Arrays.asList(2L, 3L, 4L, 5L), versions);
+    }
+
+    @Test
+    public void testReplacePendingHeartbeat() throws Exception {
+        Identifier id = clientData.getId();
+        blockSender(id);
+        outbox.transmit(new HeartbeatEvent(id, 3000));
+        outbox.transmit(new SynchronizeClientEvent(clientData, 3000, 1));
+        outbox.transmit(new HeartbeatEvent(id, 2000));
+        outbox.transmit(new HeartbeatEvent(id, 1000));
+        assertEquals(2, outbox.getQueueSize(id));
+        List<Event> events = awaitSent(3);
+        assertEquals(1, ((SynchronizeClientEvent) events.get(1)).getStateVersion());
+        assertEquals(1000, ((HeartbeatEvent) events.get(2)).getTimeLeft());
+        assertTrue(resyncs.isEmpty());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        Identifier id = clientData.getId();
+        blockSender(id);
+        outbox.transmit(new SynchronizeClientEvent(clientData, 1000, 1));
+        outbox.transmit(createUpdate(2, new Resource[] { new Resource(1, 1, 1) }, new Resource[0], 0, new Point(1, 1)));
+        // the heartbeat is still being sent
+        assertFalse(outbox.clear(50));
+        assertEquals(0, outbox.getQueueSize(id));
+        release.countDown();
+        assertTrue(outbox.clear(5000));
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0) instanceof HeartbeatEvent);
+    }
+
+    /**
+     * Sends a first event for the given client and waits until the sender thread is blocked on it.
+     */
+    private void blockSender(Identifier id) throws InterruptedException {
+        outbox.transmit(new HeartbeatEvent(id, 0));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        assertEquals(0, outbox.getQueueSize(id));
+    }
+
+    private List<Event> awaitSent(int numberOfEvents) throws InterruptedException {
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.size() < numberOfEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(numberOfEvents, sent.size());
+        return sent;
+    }
+
+    private ClientPositionUpdateEvent createUpdate(long version, Resource[] added, Resource[] removed, int tokens, Point position) {
+        Map<Identifier, Integer> clientTokens = new HashMap<>();
+        clientTokens.put(clientData.getId(), tokens);
+        Map<Identifier, Point> clientPositions = new HashMap<>();
+        clientPositions.put(clientData.getId(), position);
+        return new ClientPositionUpdateEvent(clientData, new GroupUpdateFrame(version, added, removed, clientTokens, clientPositions), 1000);
+    }
+
+    private static Set<Point> positions(Resource[] resources) {
+        Set<Point> set = new HashSet<>();
+        for (Resource resource : resources) {
+            set.add(resource.getPosition());
+        }
+        return set;
+    }
+
+}
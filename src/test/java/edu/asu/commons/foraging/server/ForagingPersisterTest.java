@@ -0,0 +1,102 @@
+package edu.asu.commons.foraging.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.foraging.conf.RoundConfiguration;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.MovementEvent;
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class ForagingPersisterTest {
+
+    private final static int NUMBER_OF_EVENTS = 500;
+
+    private File directory;
+    private ServerConfiguration configuration;
+    // events that made it past the writer thread, in the order they were stored
+    private final List<PersistableEvent> stored = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("foraging-persister").toFile();
+        configuration = new ServerConfiguration("configuration/asu/2011/t1");
+        configuration.getProperties().setProperty("persister-queue-capacity", "64");
+        configuration.getProperties().setProperty("journal-enabled", "true");
+        configuration.getProperties().setProperty("journal-directory", directory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    @Test
+    public void testPersistWaitsForStoredEvents() throws Exception {
+        final Thread experimentThread = Thread.currentThread();
+        ForagingPersister persister = new ForagingPersister(configuration) {
+            @Override
+            public void store(PersistableEvent event) {
+                super.store(event);
+                // calls from the experiment thread only enqueue the event, the writer thread stores it
+                if (Thread.currentThread() != experimentThread) {
+                    stored.add(event);
+                    // a slow disk, so the writer falls behind
+                    try {
+                        Thread.sleep(0, 200000);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+
+            @Override
+            protected String getFailSafeSaveDirectory() {
+                return directory.getAbsolutePath();
+            }
+        };
+        RoundConfiguration roundConfiguration = configuration.getCurrentParameters();
+        ServerDataModel serverDataModel = new ServerDataModel();
+        serverDataModel.setRoundConfiguration(roundConfiguration);
+        persister.initialize(roundConfiguration);
+        assertTrue(persister.isJournaling());
+        Identifier id = new Identifier.Mock();
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+            persister.store(new MovementEvent(id, directions[i % directions.length]));
+        }
+        persister.persist(serverDataModel);
+        assertEquals(NUMBER_OF_EVENTS, stored.size());
+        // the journal was only closed once the writer had appended every event
+        File[] journals = directory.listFiles((dir, name) -> name.endsWith(RoundJournal.FILE_EXTENSION));
+        assertEquals(1, journals.length);
+        try (RoundJournalReader reader = new RoundJournalReader(journals[0])) {
+            assertTrue(reader.isClosedProperly());
+            assertEquals(NUMBER_OF_EVENTS, reader.getEventCount());
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
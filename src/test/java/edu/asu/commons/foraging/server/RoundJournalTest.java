@@ -0,0 +1,258 @@
+package edu.asu.commons.foraging.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.asu.commons.event.Event;
+import edu.asu.commons.event.EventTypeChannel;
+import edu.asu.commons.event.PersistableEvent;
+import edu.asu.commons.foraging.conf.ServerConfiguration;
+import edu.asu.commons.foraging.event.MovementEvent;
+import edu.asu.commons.foraging.model.ClientData;
+import edu.asu.commons.foraging.model.Direction;
+import edu.asu.commons.foraging.model.GroupDataModel;
+import edu.asu.commons.foraging.model.Resource;
+import edu.asu.commons.foraging.model.ServerDataModel;
+import edu.asu.commons.net.Identifier;
+
+public class RoundJournalTest {
+
+    // enough events for several index entries
+    private final static int NUMBER_OF_EVENTS = 3 * RoundJournal.INDEX_INTERVAL + 10;
+
+    private File directory;
+    private final Identifier id = new Identifier.Mock();
+    // the journal the server data model's events are stored in while recording
+    private RoundJournal recording;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("round-journal").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        RoundJournal journal = RoundJournal.create(directory, "Round 1", 1000);
+        List<MovementEvent> events = appendEvents(journal, NUMBER_OF_EVENTS);
+        journal.close();
+        try (RoundJournalReader reader = new RoundJournalReader(journal.getFile())) {
+            assertTrue(reader.isClosedProperly());
+            assertEquals("Round 1", reader.getRoundLabel());
+            assertEquals(NUMBER_OF_EVENTS, reader.getEventCount());
+            assertEvents(events, reader.iterator());
+        }
+    }
+
+    @Test
+    public void testSeekByTime() throws Exception {
+        RoundJournal journal = RoundJournal.create(directory, "Round 1", 1000);
+        List<MovementEvent> events = appendEvents(journal, NUMBER_OF_EVENTS);
+        journal.close();
+        try (RoundJournalReader reader = new RoundJournalReader(journal.getFile())) {
+            for (int i = 0; i < NUMBER_OF_EVENTS; i += 37) {
+                long time = events.get(i).getCreationTime();
+                // the first event created at that time, several events may share a millisecond
+                int first = i;
+                while (first > 0 && events.get(first - 1).getCreationTime() == time) {
+                    first--;
+                }
+                assertEvents(events.subList(first, NUMBER_OF_EVENTS), reader.iterator(time - reader.getStartTime()));
+            }
+            assertEvents(events, reader.iterator(0));
+            long end = events.get(NUMBER_OF_EVENTS - 1).getCreationTime() + 1;
+            assertFalse(reader.iterator(end - reader.getStartTime()).hasNext());
+        }
+    }
+
+    @Test
+    public void testTruncatedSegment() throws Exception {
+        RoundJournal journal = RoundJournal.create(directory, "Round 1", 1000);
+        List<MovementEvent> events = appendEvents(journal, NUMBER_OF_EVENTS);
+        // the server crashed before the journal was closed, so there is no footer and the last record is cut off
+        journal.sync();
+        File file = journal.getFile();
+        try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+            truncated.setLength(file.length() - 5);
+        }
+        try (RoundJournalReader reader = new RoundJournalReader(file)) {
+            assertFalse(reader.isClosedProperly());
+            assertEquals(NUMBER_OF_EVENTS - 1, reader.getEventCount());
+            List<MovementEvent> complete = events.subList(0, NUMBER_OF_EVENTS - 1);
+            assertEvents(complete, reader.iterator());
+            MovementEvent middle = complete.get(RoundJournal.INDEX_INTERVAL + 1);
+            List<MovementEvent> expected = new ArrayList<>();
+            for (MovementEvent event : complete) {
+                if (event.getCreationTime() >= middle.getCreationTime()) {
+                    expected.add(event);
+                }
+            }
+            assertEvents(expected, reader.iterator(middle.getCreationTime() - reader.getStartTime()));
+        }
+        journal.close();
+    }
+
+    @Test
+    public void testReplayFromCheckpoint() throws Exception {
+        ServerDataModel serverDataModel = new ServerDataModel(new EventTypeChannel() {
+            @Override
+            public void handle(Event event) {
+                if (recording != null && event instanceof PersistableEvent) {
+                    record((PersistableEvent) event);
+                }
+            }
+        });
+        serverDataModel.setRoundConfiguration(new ServerConfiguration("configuration/asu/2011/t1").getCurrentParameters());
+        List<ClientData> clients = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ClientData clientData = new ClientData(new Identifier.Mock());
+            serverDataModel.addClient(clientData);
+            clients.add(clientData);
+            // a row of tokens to the right of every client
+            Point position = clientData.getPoint();
+            Set<Resource> resources = new HashSet<>();
+            for (int x = 1; x <= 4; x++) {
+                resources.add(new Resource(position.x + x, position.y, 1));
+            }
+            clientData.getGroupDataModel().addResources(resources);
+        }
+        // the first client collects tokens by moving onto them, the second one explicitly
+        ClientData first = clients.get(0);
+        first.setExplicitCollectionMode(false);
+        ClientData second = clients.get(1);
+        second.setExplicitCollectionMode(true);
+        recording = RoundJournal.create(directory, "Round 1", 1000);
+        serverDataModel.moveClient(first.getId(), Direction.RIGHT);
+        serverDataModel.moveClient(first.getId(), Direction.RIGHT);
+        serverDataModel.moveClient(second.getId(), Direction.RIGHT);
+        serverDataModel.handleTokenCollectionRequest(second);
+        serverDataModel.checkpoint(this::record);
+        int eventsBeforeCheckpoint = recording.getEventCount();
+        serverDataModel.moveClient(first.getId(), Direction.RIGHT);
+        serverDataModel.moveClient(first.getId(), Direction.DOWN);
+        serverDataModel.moveClient(second.getId(), Direction.RIGHT);
+        serverDataModel.handleTokenCollectionRequest(second);
+        serverDataModel.moveClient(second.getId(), Direction.RIGHT);
+        serverDataModel.handleTokenCollectionRequest(second);
+        int eventsAfterCheckpoint = recording.getEventCount() - eventsBeforeCheckpoint;
+        recording.close();
+        File file = recording.getFile();
+        recording = null;
+        Map<Identifier, Point> positions = new HashMap<>();
+        Map<Identifier, Integer> tokens = new HashMap<>();
+        Map<Identifier, Set<Point>> resources = new HashMap<>();
+        for (ClientData clientData : clients) {
+            positions.put(clientData.getId(), new Point(clientData.getPoint()));
+            tokens.put(clientData.getId(), clientData.getCurrentTokens());
+            resources.put(clientData.getId(), new HashSet<>(clientData.getGroupDataModel().getResourceDistribution().keySet()));
+            // forget the round's state
+            clientData.setPosition(new Point(0, 0));
+            clientData.setCurrentTokens(0);
+            clientData.getGroupDataModel().restoreResourceDistribution(new Resource[0]);
+        }
+        assertEquals(3, (int) tokens.get(first.getId()));
+        assertEquals(3, (int) tokens.get(second.getId()));
+
+        try (RoundJournalReader reader = new RoundJournalReader(file)) {
+            assertEquals(1, reader.getNumberOfCheckpoints());
+            long end = reader.getCheckpointTimeOffset(0) + 60000;
+            Iterator<PersistableEvent> events = reader.iteratorFromCheckpoint(end, serverDataModel);
+            int replayed = 0;
+            while (events.hasNext()) {
+                serverDataModel.apply(events.next());
+                replayed++;
+            }
+            assertEquals(eventsAfterCheckpoint, replayed);
+        }
+        for (ClientData clientData : clients) {
+            GroupDataModel group = clientData.getGroupDataModel();
+            assertEquals(positions.get(clientData.getId()), clientData.getPoint());
+            assertEquals(tokens.get(clientData.getId()).intValue(), clientData.getCurrentTokens());
+            assertEquals(resources.get(clientData.getId()), group.getResourceDistribution().keySet());
+        }
+    }
+
+    @Test
+    public void testSyncWhenIdle() throws Exception {
+        RoundJournal journal = RoundJournal.create(directory, "Round 1", 100);
+        journal.append(new MovementEvent(id, Direction.UP));
+        journal.sync();
+        long size = journal.getFile().length();
+        journal.append(new MovementEvent(id, Direction.LEFT));
+        assertEquals(size, journal.getFile().length());
+        // the second event is still buffered and no further event arrives to trigger a sync
+        Thread.sleep(150);
+        assertTrue(journal.syncIfDue());
+        assertTrue(journal.getFile().length() > size);
+        // nothing was appended since
+        Thread.sleep(150);
+        assertFalse(journal.syncIfDue());
+        journal.close();
+        assertFalse(journal.syncIfDue());
+        assertEquals(2, journal.getEventCount());
+    }
+
+    private void record(PersistableEvent event) {
+        try {
+            recording.append(event);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private List<MovementEvent> appendEvents(RoundJournal journal, int numberOfEvents) throws Exception {
+        Direction[] directions = { Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT };
+        List<MovementEvent> events = new ArrayList<>();
+        for (int i = 0; i < numberOfEvents; i++) {
+            if (i % 50 == 0) {
+                // spread the events over time
+                Thread.sleep(2);
+            }
+            MovementEvent event = new MovementEvent(id, directions[i % directions.length]);
+            journal.append(event);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private void assertEvents(List<MovementEvent> expected, Iterator<PersistableEvent> actual) {
+        for (MovementEvent event : expected) {
+            assertTrue(actual.hasNext());
+            MovementEvent decoded = (MovementEvent) actual.next();
+            assertEquals(event.getCreationTime(), decoded.getCreationTime());
+            assertEquals(event.getDirection(), decoded.getDirection());
+            assertEquals(event.getId(), decoded.getId());
+        }
+        assertFalse(actual.hasNext());
+    }
+
+}
@@ -0,0 +1,131 @@
+package edu.asu.commons.foraging.server;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.asu.commons.foraging.server.TickScheduler.OverrunPolicy;
+
+public class TickSchedulerTest {
+
+    private final static long PERIOD = 100;
+
+    /**
+     * TickScheduler driven by a fake clock, sleeping only advances the clock.
+     */
+    private static class ManualTickScheduler extends TickScheduler {
+        private long now;
+
+        ManualTickScheduler(OverrunPolicy overrunPolicy, int maxCatchUpTicks) {
+            super(PERIOD, overrunPolicy, maxCatchUpTicks);
+        }
+
+        @Override
+        long nanoTime() {
+            return now;
+        }
+
+        @Override
+        void sleep(long nanos) {
+            now += nanos;
+        }
+
+        void work(long millis) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        long getTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(now);
+        }
+    }
+
+    @Test
+    public void testOnTimeTicks() {
+        ManualTickScheduler scheduler = new ManualTickScheduler(OverrunPolicy.CATCH_UP, 3);
+        scheduler.start();
+        for (int i = 0; i < 10; i++) {
+            scheduler.awaitNextTick();
+            scheduler.work(PERIOD - 1);
+        }
+        assertEquals(10, scheduler.getTicks());
+        assertEquals(0, scheduler.getOverruns());
+        assertEquals(0, scheduler.getSkippedTicks());
+    }
+
+    @Test
+    public void testCatchUp() {
+        ManualTickScheduler scheduler = new ManualTickScheduler(OverrunPolicy.CATCH_UP, 3);
+        scheduler.start();
+        scheduler.awaitNextTick();
+        assertEquals(100, scheduler.getTimeMillis());
+        // one slow tick puts the schedule 2.5 periods behind
+        scheduler.work(350);
+        scheduler.awaitNextTick();
+        // the two missed ticks run back to back without counting as overruns
+        scheduler.awaitNextTick();
+        scheduler.awaitNextTick();
+        assertEquals(450, scheduler.getTimeMillis());
+        assertEquals(1, scheduler.getOverruns());
+        assertEquals(250d, scheduler.getMaxLatenessMillis(), 0.001d);
+        // back on schedule
+        scheduler.awaitNextTick();
+        assertEquals(500, scheduler.getTimeMillis());
+        assertEquals(5, scheduler.getTicks());
+        assertEquals(1, scheduler.getOverruns());
+        assertEquals(0, scheduler.getSkippedTicks());
+        // the tick due at 600 only starts at 750, past its deadline, but the tick due at 700 starts with 50 ms of
+        // its period left, so running past its deadline is an overrun again
+        scheduler.work(250);
+        scheduler.awaitNextTick();
+        scheduler.awaitNextTick();
+        assertEquals(750, scheduler.getTimeMillis());
+        assertEquals(2, scheduler.getOverruns());
+        scheduler.work(150);
+        scheduler.awaitNextTick();
+        assertEquals(3, scheduler.getOverruns());
+    }
+
+    @Test
+    public void testCatchUpDropsTicksBeyondLimit() {
+        ManualTickScheduler scheduler = new ManualTickScheduler(OverrunPolicy.CATCH_UP, 3);
+        scheduler.start();
+        scheduler.awaitNextTick();
+        scheduler.work(1000);
+        long ticks = 0;
+        do {
+            scheduler.awaitNextTick();
+            ticks++;
+        } while (scheduler.getTimeMillis() == 1100);
+        // the overrun tick and three caught up ticks run immediately, the next one waits for its deadline
+        assertEquals(5, ticks);
+        assertEquals(1200, scheduler.getTimeMillis());
+        assertEquals(1, scheduler.getOverruns());
+        assertEquals(6, scheduler.getSkippedTicks());
+    }
+
+    @Test
+    public void testSkip() {
+        ManualTickScheduler scheduler = new ManualTickScheduler(OverrunPolicy.SKIP, 3);
+        scheduler.start();
+        scheduler.awaitNextTick();
+        scheduler.work(350);
+        scheduler.awaitNextTick();
+        assertEquals(450, scheduler.getTimeMillis());
+        // the schedule restarts from the overrun instead of catching up
+        scheduler.awaitNextTick();
+        assertEquals(550, scheduler.getTimeMillis());
+        assertEquals(3, scheduler.getTicks());
+        assertEquals(1, scheduler.getOverruns());
+        assertEquals(2, scheduler.getSkippedTicks());
+    }
+
+    @Test
+    public void testFindPolicy() {
+        assertEquals(OverrunPolicy.SKIP, OverrunPolicy.find("skip"));
+        assertEquals(OverrunPolicy.CATCH_UP, OverrunPolicy.find("catch-up"));
+        assertEquals(OverrunPolicy.CATCH_UP, OverrunPolicy.find("unknown"));
+    }
+
+}
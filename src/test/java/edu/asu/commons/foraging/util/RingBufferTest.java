@@ -0,0 +1,106 @@
+package edu.asu.commons.foraging.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RingBufferTest {
+
+    @Test
+    public void testCapacity() {
+        assertEquals(2, new RingBuffer<Integer>(0).capacity());
+        assertEquals(4, new RingBuffer<Integer>(4).capacity());
+        assertEquals(8, new RingBuffer<Integer>(5).capacity());
+    }
+
+    @Test
+    public void testOfferWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals("a rejected element isn't counted", 4, buffer.getOffered());
+        assertEquals(0, buffer.poll().intValue());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll().intValue());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testWraparound() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // batches of 3 don't line up with the capacity, so the slots used shift with every lap
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected++, buffer.poll().intValue());
+            }
+            assertNull(buffer.poll());
+        }
+        assertEquals(30, buffer.getOffered());
+        assertEquals(30, buffer.getPolled());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final int producers = 4;
+        final int elementsPerProducer = 20000;
+        // small enough that the producers keep running into a full buffer
+        RingBuffer<int[]> buffer = new RingBuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    int[] element = { producer, i };
+                    while (! buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        // the next element expected from every producer, each one's elements must arrive in order exactly once
+        int[] next = new int[producers];
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 30000;
+        while (received < producers * elementsPerProducer) {
+            int[] element = buffer.poll();
+            if (element == null) {
+                assertTrue("producers stalled", System.currentTimeMillis() < deadline);
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[element[0]], element[1]);
+            next[element[0]]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(elementsPerProducer, next[p]);
+        }
+        assertEquals(producers * elementsPerProducer, buffer.getOffered());
+    }
+
+}